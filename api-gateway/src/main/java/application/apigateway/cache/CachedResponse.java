@@ -0,0 +1,31 @@
+package application.apigateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+
+/**
+ * A complete upstream response held in memory by the gateway.
+ */
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    private final int status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+    private final Instant storedAt;
+    private final Instant freshUntil;
+    private final Instant staleUntil;  // may still be served when the upstream fails
+
+    public boolean isFresh(Instant now) {
+        return now.isBefore(freshUntil);
+    }
+
+    public boolean isUsableWhenStale(Instant now) {
+        return now.isBefore(staleUntil);
+    }
+}
@@ -0,0 +1,110 @@
+package application.apigateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Response decorator installed by ResponseCaptureFilter ahead of the gateway's
+ * response writer. Route filters register a BodyCallback with {@link #onBody};
+ * the body is then collected into a byte array, passed through the callbacks
+ * and the result is what the client receives. Without a callback the body
+ * streams through untouched.
+ * Only register callbacks on routes whose responses are small enough to hold in memory.
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private static final String CALLBACK_ATTR = CapturingResponseDecorator.class.getName() + ".callback";
+    private static final String COMPLETION_ATTR = CapturingResponseDecorator.class.getName() + ".completion";
+
+    @FunctionalInterface
+    public interface BodyCallback {
+        /**
+         * @return the bytes to send to the client; an empty array sends no body
+         */
+        byte[] onBody(byte[] body);
+    }
+
+    private final ServerWebExchange exchange;
+
+    public CapturingResponseDecorator(ServerWebExchange exchange) {
+        super(exchange.getResponse());
+        this.exchange = exchange;
+    }
+
+    /**
+     * Register a callback for the response body of this exchange. Callbacks
+     * registered later (filters closer to the upstream) see the body first.
+     */
+    public static void onBody(ServerWebExchange exchange, BodyCallback callback) {
+        BodyCallback outer = exchange.getAttribute(CALLBACK_ATTR);
+        BodyCallback composed = outer == null ? callback : body -> outer.onBody(callback.onBody(body));
+        exchange.getAttributes().put(CALLBACK_ATTR, composed);
+    }
+
+    /**
+     * Register a task to run once the response has been written, failed or
+     * been cancelled. Route filters complete before the body is written, so
+     * cleanup that depends on the body must use this rather than doFinally.
+     */
+    public static void onComplete(ServerWebExchange exchange, Runnable task) {
+        Runnable previous = exchange.getAttribute(COMPLETION_ATTR);
+        Runnable composed = previous == null ? task : () -> {
+            try {
+                task.run();
+            } finally {
+                previous.run();
+            }
+        };
+        exchange.getAttributes().put(COMPLETION_ATTR, composed);
+    }
+
+    /**
+     * Called by ResponseCaptureFilter when the exchange is done.
+     */
+    public static void complete(ServerWebExchange exchange) {
+        Runnable task = exchange.getAttribute(COMPLETION_ATTR);
+        if (task != null) {
+            exchange.getAttributes().remove(COMPLETION_ATTR);
+            task.run();
+        }
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        BodyCallback callback = exchange.getAttribute(CALLBACK_ATTR);
+        if (callback == null) {
+            return super.writeWith(body);
+        }
+
+        return DataBufferUtils.join(Flux.from(body))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> {
+                    byte[] out = callback.onBody(bytes);
+                    if (out.length == 0) {
+                        getDelegate().getHeaders().remove("Content-Length");
+                        return getDelegate().setComplete();
+                    }
+                    getDelegate().getHeaders().setContentLength(out.length);
+                    return getDelegate().writeWith(Mono.just(bufferFactory().wrap(out)));
+                });
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        if (exchange.getAttribute(CALLBACK_ATTR) == null) {
+            return super.writeAndFlushWith(body);
+        }
+        return writeWith(Flux.from(body).flatMapSequential(p -> p));
+    }
+}
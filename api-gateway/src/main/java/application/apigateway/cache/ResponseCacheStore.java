@@ -0,0 +1,145 @@
+package application.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded store behind ResponseCacheFilter. Entries are keyed
+ * "routeId|path?query[|user]" and weighed by body size.
+ * Each cached route registers the path prefix whose writes invalidate it.
+ * Entries are kept past their freshness for the route's stale-if-error window.
+ * Each route also has a generation, bumped on every invalidation: a response read
+ * from upstream before a write is not stored once that write has invalidated the route.
+ */
+@Component
+public class ResponseCacheStore {
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, String> invalidationPrefixes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final int maxEntryBytes;
+
+    public ResponseCacheStore(MeterRegistry meterRegistry,
+                              @Value("${gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${gateway.response-cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.getBody().length)
+                .expireAfter(new FreshnessExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    public CachedResponse getFresh(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        if (response == null || !response.isFresh(Instant.now())) {
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * An entry past its freshness but still inside its stale-if-error window.
+     */
+    public CachedResponse getStale(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        if (response == null || !response.isUsableWhenStale(Instant.now())) {
+            return null;
+        }
+        return response;
+    }
+
+    public boolean accepts(byte[] body) {
+        return body.length <= maxEntryBytes;
+    }
+
+    /**
+     * The route's current generation; read it before calling upstream and pass it to put.
+     */
+    public long generation(String routeId) {
+        return generationOf(routeId).get();
+    }
+
+    /**
+     * Store the response unless the route was invalidated since the given generation.
+     */
+    public void put(String routeId, long generation, String key, CachedResponse response) {
+        AtomicLong current = generationOf(routeId);
+        if (current.get() != generation) {
+            return;
+        }
+        cache.put(key, response);
+        // An invalidation between the check and the put may have swept before the entry landed
+        if (current.get() != generation) {
+            cache.asMap().remove(key, response);
+        }
+    }
+
+    public void registerRoute(String routeId, String invalidatedBy) {
+        if (routeId != null && invalidatedBy != null) {
+            invalidationPrefixes.put(routeId, invalidatedBy);
+        }
+    }
+
+    /**
+     * Drop every entry of the routes whose invalidation prefix covers the written path.
+     */
+    public void invalidateForWrite(String path) {
+        invalidationPrefixes.forEach((routeId, prefix) -> {
+            if (matchesPrefix(path, prefix)) {
+                generationOf(routeId).incrementAndGet();
+                String keyPrefix = routeId + "|";
+                cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+            }
+        });
+    }
+
+    private AtomicLong generationOf(String routeId) {
+        return generations.computeIfAbsent(routeId, id -> new AtomicLong());
+    }
+
+    private static boolean matchesPrefix(String path, String prefix) {
+        if (!path.startsWith(prefix)) {
+            return false;
+        }
+        return path.length() == prefix.length()
+                || prefix.endsWith("/")
+                || path.charAt(prefix.length()) == '/';
+    }
+
+    /**
+     * Keep an entry while it is fresh or may still be served stale.
+     */
+    private static class FreshnessExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), response.getStaleUntil());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, response, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
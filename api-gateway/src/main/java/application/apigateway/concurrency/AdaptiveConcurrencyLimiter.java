@@ -0,0 +1,82 @@
+package application.apigateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit for one downstream service.
+ * Every successful response grows the limit by 1/limit (about +1 per round of
+ * requests); an error, a 5xx or a response slower than the route's threshold
+ * multiplies it by the backoff ratio, at most once per cooldown so a burst of
+ * failures does not collapse it to the minimum at once.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long cooldownNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long cooldownNanos) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, cooldownNanos, System::nanoTime);
+    }
+
+    // Tests drive the clock
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                               double backoffRatio, long cooldownNanos, LongSupplier nanoClock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.cooldownNanos = cooldownNanos;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+        this.lastDecreaseNanos = nanoClock.getAsLong() - cooldownNanos;
+    }
+
+    /**
+     * Take a slot if the priority's share of the limit is not used up.
+     * Every successful call must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit * priority.getShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(boolean dropped) {
+        int before = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped) {
+                long now = nanoClock.getAsLong();
+                if (now - lastDecreaseNanos >= cooldownNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (before * 2 >= limit) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,70 @@
+package application.apigateway.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One AdaptiveConcurrencyLimiter per downstream service, shared by every route
+ * that targets it, with gauges for its current limit and in-flight requests.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final Duration cooldown;
+
+    public ConcurrencyLimiterRegistry(MeterRegistry meterRegistry,
+                                      @Value("${gateway.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${gateway.concurrency.min-limit:4}") int minLimit,
+                                      @Value("${gateway.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${gateway.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${gateway.concurrency.cooldown:PT1S}") Duration cooldown) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.cooldown = cooldown;
+    }
+
+    public AdaptiveConcurrencyLimiter forService(String service) {
+        return limiters.computeIfAbsent(service, this::create);
+    }
+
+    public void recordRejection(String service, Priority priority) {
+        Counter.builder("gateway.concurrency.rejected")
+                .description("Requests shed because the downstream service was at its concurrency limit")
+                .tag("service", service)
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private AdaptiveConcurrencyLimiter create(String service) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, backoffRatio, cooldown.toNanos());
+
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("service", service)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently in flight to the service")
+                .tag("service", service)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
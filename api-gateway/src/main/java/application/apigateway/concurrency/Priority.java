@@ -0,0 +1,22 @@
+package application.apigateway.concurrency;
+
+/**
+ * Request priority classes for load shedding. A class is admitted only while
+ * in-flight requests are below its share of the current limit, so BATCH is
+ * shed first and INTERACTIVE last.
+ */
+public enum Priority {
+    INTERACTIVE(1.0),  // user is waiting on the screen (my balances, dashboards)
+    STANDARD(0.8),
+    BATCH(0.5);        // report exports and other bulk work
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    public double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,25 @@
+package application.apigateway.controller;
+
+import application.apigateway.util.GatewayErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Target of the CircuitBreaker filters' fallbackUri: answers immediately
+ * while a service's breaker is open or its call failed.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public Mono<Void> serviceUnavailable(@PathVariable String service, ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().set("Retry-After", "10");
+        return GatewayErrorResponse.write(exchange, HttpStatus.SERVICE_UNAVAILABLE,
+                service + " is temporarily unavailable, please retry later");
+    }
+}
@@ -0,0 +1,122 @@
+package application.apigateway.filter;
+
+import application.apigateway.concurrency.AdaptiveConcurrencyLimiter;
+import application.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import application.apigateway.concurrency.Priority;
+import application.apigateway.util.GatewayErrorResponse;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adaptive concurrency limiting per downstream service (the host of the
+ * route's lb:// uri). Requests over their priority's share of the limit are
+ * rejected immediately with 503 and Retry-After instead of queueing behind
+ * a slow backend. List it last so rate-limited or cached requests never take a slot.
+ * The slot is held until ConcurrencyReleaseFilter sees the response body written,
+ * since the route chain already completes when the upstream headers arrive.
+ */
+@Component
+public class ConcurrencyLimitFilter extends AbstractGatewayFilterFactory<ConcurrencyLimitFilter.Config> {
+
+    static final String SLOT_ATTR = ConcurrencyLimitFilter.class.getName() + ".slot";
+
+    private final ConcurrencyLimiterRegistry registry;
+    private final Duration defaultSlowThreshold;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiterRegistry registry,
+                                  @Value("${gateway.concurrency.slow-threshold:PT5S}") Duration defaultSlowThreshold,
+                                  @Value("${gateway.concurrency.retry-after:PT1S}") Duration retryAfter) {
+        super(Config.class);
+        this.registry = registry;
+        this.defaultSlowThreshold = defaultSlowThreshold;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long slowThresholdNanos = (config.getSlowThreshold() != null
+                ? config.getSlowThreshold() : defaultSlowThreshold).toNanos();
+
+        return (exchange, chain) -> {
+            String service = serviceName(exchange);
+            AdaptiveConcurrencyLimiter limiter = registry.forService(service);
+
+            if (!limiter.tryAcquire(config.getPriority())) {
+                registry.recordRejection(service, config.getPriority());
+                exchange.getResponse().getHeaders().set("Retry-After", Long.toString(retryAfterSeconds));
+                return GatewayErrorResponse.write(exchange, HttpStatus.SERVICE_UNAVAILABLE,
+                        "Service is busy, please retry");
+            }
+
+            exchange.getAttributes().put(SLOT_ATTR, new Slot(limiter, slowThresholdNanos));
+            return chain.filter(exchange);
+        };
+    }
+
+    /**
+     * Give back the slot taken for this exchange, if any, judging the response by
+     * its status and the time since the slot was taken. Safe to call more than once.
+     */
+    static void release(ServerWebExchange exchange, SignalType signal) {
+        Slot slot = exchange.getAttribute(SLOT_ATTR);
+        if (slot != null) {
+            slot.release(exchange, signal);
+        }
+    }
+
+    private static boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    private static String serviceName(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return "unknown";
+        }
+        URI uri = route.getUri();
+        return uri.getHost() != null ? uri.getHost() : uri.toString();
+    }
+
+    private static final class Slot {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long slowThresholdNanos;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot(AdaptiveConcurrencyLimiter limiter, long slowThresholdNanos) {
+            this.limiter = limiter;
+            this.slowThresholdNanos = slowThresholdNanos;
+        }
+
+        private void release(ServerWebExchange exchange, SignalType signal) {
+            if (released.compareAndSet(false, true)) {
+                boolean slow = System.nanoTime() - start > slowThresholdNanos;
+                limiter.release(signal == SignalType.ON_ERROR || slow || isServerError(exchange));
+            }
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private Priority priority = Priority.STANDARD;
+        private Duration slowThreshold;    // defaults to gateway.concurrency.slow-threshold
+    }
+}
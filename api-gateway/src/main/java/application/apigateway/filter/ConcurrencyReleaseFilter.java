@@ -0,0 +1,29 @@
+package application.apigateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs ahead of NettyWriteResponseFilter so its chain only completes once the
+ * upstream body has been streamed to the client, and releases the slot
+ * ConcurrencyLimitFilter took. Errors and cancelled requests release it too.
+ */
+@Component
+public class ConcurrencyReleaseFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange)
+                .doFinally(signal -> ConcurrencyLimitFilter.release(exchange, signal));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+}
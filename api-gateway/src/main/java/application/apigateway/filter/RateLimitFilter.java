@@ -0,0 +1,98 @@
+package application.apigateway.filter;
+
+import application.apigateway.ratelimit.RateLimiterBackend;
+import application.apigateway.util.GatewayErrorResponse;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Token-bucket rate limiting per caller and per budget.
+ * On protected routes it must be listed after JwtAuthenticationFilter so the
+ * X-User-Id it resolves is available; public routes key by client IP instead.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private final RateLimiterBackend backend;
+    private final RemoteAddressResolver remoteAddressResolver;
+
+    public RateLimitFilter(RateLimiterBackend backend,
+                           @Value("${gateway.rate-limit.trusted-proxy-hops:0}") int trustedProxyHops) {
+        super(Config.class);
+        this.backend = backend;
+        this.remoteAddressResolver = trustedProxyHops > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxyHops)
+                : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String bucketKey = budgetName(exchange, config) + ":" + callerKey(exchange, config);
+
+            return backend.tryConsume(bucketKey, config.getReplenishRate(), config.getBurstCapacity())
+                    .flatMap(result -> {
+                        if (result.isAllowed()) {
+                            if (result.getRemaining() >= 0) {
+                                exchange.getResponse().getHeaders()
+                                        .set("X-RateLimit-Remaining", Long.toString(result.getRemaining()));
+                            }
+                            return chain.filter(exchange);
+                        }
+
+                        exchange.getResponse().getHeaders()
+                                .set("Retry-After", Long.toString(result.getRetryAfterSeconds()));
+                        exchange.getResponse().getHeaders().set("X-RateLimit-Remaining", "0");
+                        return GatewayErrorResponse.write(exchange, HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+                    });
+        };
+    }
+
+    private String budgetName(ServerWebExchange exchange, Config config) {
+        if (config.getBudget() != null) {
+            return config.getBudget();
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "default";
+    }
+
+    private String callerKey(ServerWebExchange exchange, Config config) {
+        if (config.getKeySource() == KeySource.USER) {
+            String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+            if (userId != null) {
+                return "user:" + userId;
+            }
+        }
+        InetSocketAddress address = remoteAddressResolver.resolve(exchange);
+        if (address == null || address.getAddress() == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + address.getAddress().getHostAddress();
+    }
+
+    public enum KeySource {
+        USER, // X-User-Id set by JwtAuthenticationFilter, falling back to IP
+        IP
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private String budget;             // defaults to the route id
+        private KeySource keySource = KeySource.USER;
+        private double replenishRate = 10; // tokens per second
+        private long burstCapacity = 20;
+    }
+}
@@ -0,0 +1,182 @@
+package application.apigateway.filter;
+
+import application.apigateway.cache.CachedResponse;
+import application.apigateway.cache.CapturingResponseDecorator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-flight for identical GETs: while one request for a key is in flight
+ * upstream, concurrent requests for the same key wait for its response
+ * instead of making their own call.
+ * List it after ResponseCacheFilter so only cache misses are coalesced, and
+ * set varyByUser on routes whose response depends on the caller.
+ * Only successful responses without Set-Cookie are shared; otherwise the
+ * waiters go upstream themselves.
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    // Hop-by-hop and per-request headers that must not be copied to waiters
+    private static final List<String> NOT_SHARED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION,
+            HttpHeaders.DATE
+    );
+
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter followerCounter;
+    private final Counter fallbackCounter;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.leaderCounter = requestCounter(meterRegistry, "leader");
+        this.followerCounter = requestCounter(meterRegistry, "follower");
+        this.fallbackCounter = requestCounter(meterRegistry, "fallback");
+        Gauge.builder("gateway.coalesce.in.flight", inFlight, Map::size)
+                .description("Distinct GET requests currently in flight upstream with waiters allowed to join")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(config, request);
+            Sinks.One<CachedResponse> sink = Sinks.one();
+            Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+
+            if (leader != null) {
+                return follow(exchange, chain, leader, config.getMaxWait());
+            }
+            return lead(exchange, chain, key, sink);
+        };
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain,
+                            String key, Sinks.One<CachedResponse> sink) {
+        leaderCounter.increment();
+
+        CapturingResponseDecorator.onBody(exchange, body -> {
+            inFlight.remove(key, sink);
+            ServerHttpResponse response = exchange.getResponse();
+            if (isShareable(response.getStatusCode(), response.getHeaders())) {
+                Instant now = Instant.now();
+                sink.tryEmitValue(new CachedResponse(
+                        response.getStatusCode().value(),
+                        sharedHeaders(response.getHeaders()),
+                        body,
+                        null,
+                        now,
+                        now,
+                        now
+                ));
+            } else {
+                sink.tryEmitEmpty();
+            }
+            return body;
+        });
+
+        // Errors, cancellation or a response without a body release the waiters too
+        CapturingResponseDecorator.onComplete(exchange, () -> {
+            inFlight.remove(key, sink);
+            sink.tryEmitEmpty();
+        });
+        return chain.filter(exchange);
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain,
+                              Sinks.One<CachedResponse> leader, Duration maxWait) {
+        return leader.asMono()
+                .timeout(maxWait, Mono.empty())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(shared -> {
+                    if (shared.isPresent()) {
+                        followerCounter.increment();
+                        return write(exchange, shared.get());
+                    }
+                    fallbackCounter.increment();
+                    return chain.filter(exchange);
+                });
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(shared.getStatus()));
+        shared.getHeaders().forEach((name, values) -> response.getHeaders().putIfAbsent(name, values));
+        response.getHeaders().setContentLength(shared.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.getBody())));
+    }
+
+    private static boolean isShareable(HttpStatusCode status, HttpHeaders headers) {
+        return status != null && status.is2xxSuccessful() && !headers.containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private static HttpHeaders sharedHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (NOT_SHARED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                copy.put(name, List.copyOf(values));
+            }
+        });
+        return copy;
+    }
+
+    private static String coalescingKey(Config config, ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(config.getRouteId()).append('|')
+                .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        if (config.isVaryByUser()) {
+            key.append('|').append(request.getHeaders().getFirst("X-User-Id"));
+        }
+        return key.toString();
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("gateway.coalesce.requests")
+                .description("GET requests seen by RequestCoalescingFilter; follower / (leader + follower) is the coalescing ratio")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    @Getter
+    @Setter
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private boolean varyByUser = false;
+        private Duration maxWait = Duration.ofSeconds(10); // followers then go upstream themselves
+    }
+}
@@ -0,0 +1,218 @@
+package application.apigateway.filter;
+
+import application.apigateway.cache.CachedResponse;
+import application.apigateway.cache.CapturingResponseDecorator;
+import application.apigateway.cache.ResponseCacheStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves GET responses of a route from the gateway's ResponseCacheStore.
+ * Every response carries a weak ETag, and a matching If-None-Match gets 304.
+ * Writes under the route's invalidatedBy prefix evict its entries
+ * (see ResponseCacheInvalidationFilter).
+ * With staleIfError set, an expired entry is served (X-Cache: STALE) when the
+ * upstream call fails, e.g. while the route's circuit breaker is open.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private final ResponseCacheStore store;
+    private final Counter notModifiedCounter;
+    private final Counter staleCounter;
+
+    public ResponseCacheFilter(ResponseCacheStore store, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.store = store;
+        this.notModifiedCounter = Counter.builder("gateway.response.cache.not.modified")
+                .description("Requests answered with 304 Not Modified by the gateway")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("gateway.response.cache.stale")
+                .description("Failed upstream calls answered with a stale cached response")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        store.registerRoute(config.getRouteId(), config.getInvalidatedBy());
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(config, request);
+            String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+
+            CachedResponse cached = store.getFresh(key);
+            if (cached != null) {
+                return writeCached(exchange, cached, ifNoneMatch, "HIT");
+            }
+            long generation = store.generation(config.getRouteId());
+
+            AtomicBoolean servingStale = new AtomicBoolean();
+            CapturingResponseDecorator.onBody(exchange, body -> {
+                if (servingStale.get()) {
+                    return body;
+                }
+                ServerHttpResponse response = exchange.getResponse();
+                String etag = etag(body);
+                response.getHeaders().setETag(etag);
+                response.getHeaders().set("X-Cache", "MISS");
+
+                if (isCacheable(response.getStatusCode(), response.getHeaders()) && store.accepts(body)) {
+                    Instant now = Instant.now();
+                    store.put(config.getRouteId(), generation, key, new CachedResponse(
+                            response.getStatusCode().value(),
+                            cacheableHeaders(response.getHeaders()),
+                            body,
+                            etag,
+                            now,
+                            now.plus(config.getTtl()),
+                            now.plus(config.getTtl()).plus(config.getStaleIfError())
+                    ));
+                }
+
+                if (response.getStatusCode() == HttpStatus.OK && etagMatches(ifNoneMatch, etag)) {
+                    response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                    notModifiedCounter.increment();
+                    return new byte[0];
+                }
+                return body;
+            });
+
+            return chain.filter(exchange)
+                    .onErrorResume(error -> {
+                        CachedResponse stale = store.getStale(key);
+                        if (stale == null || exchange.getResponse().isCommitted()) {
+                            return Mono.error(error);
+                        }
+                        servingStale.set(true);
+                        staleCounter.increment();
+                        return writeCached(exchange, stale, ifNoneMatch, "STALE");
+                    });
+        };
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached,
+                                   String ifNoneMatch, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.getHeaders());
+        headers.setETag(cached.getEtag());
+        headers.set("X-Cache", cacheStatus);
+        headers.set(HttpHeaders.AGE,
+                Long.toString(Duration.between(cached.getStoredAt(), Instant.now()).toSeconds()));
+
+        if (etagMatches(ifNoneMatch, cached.getEtag())) {
+            notModifiedCounter.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatusCode.valueOf(cached.getStatus()));
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static String cacheKey(Config config, ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(config.getRouteId()).append('|')
+                .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        if (config.isVaryByUser()) {
+            key.append('|').append(request.getHeaders().getFirst("X-User-Id"));
+        }
+        return key.toString();
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value()) {
+            return false;
+        }
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private static HttpHeaders cacheableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        if (headers.getContentType() != null) {
+            copy.setContentType(headers.getContentType());
+        }
+        if (headers.getCacheControl() != null) {
+            copy.setCacheControl(headers.getCacheControl());
+        }
+        return copy;
+    }
+
+    /**
+     * Weak ETag: the body may be re-encoded (e.g. compressed) on its way to the client.
+     */
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || stripWeak(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    @Getter
+    @Setter
+    public static class Config implements HasRouteId {
+        private String routeId;
+        private Duration ttl = Duration.ofSeconds(30);
+        private String invalidatedBy;    // path prefix whose non-GET requests evict this route's entries
+        private boolean varyByUser = false;
+        private Duration staleIfError = Duration.ZERO;
+    }
+}
@@ -0,0 +1,42 @@
+package application.apigateway.filter;
+
+import application.apigateway.cache.ResponseCacheStore;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Evicts cached GET responses once a write to the same path prefix has succeeded
+ * (2xx), whichever route the write took. Rejected or failed writes changed nothing,
+ * so they leave the cache alone.
+ */
+@Component
+public class ResponseCacheInvalidationFilter implements GlobalFilter {
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheInvalidationFilter(ResponseCacheStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        HttpMethod method = exchange.getRequest().getMethod();
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+
+        String path = exchange.getRequest().getURI().getRawPath();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        store.invalidateForWrite(path);
+                    }
+                });
+    }
+}
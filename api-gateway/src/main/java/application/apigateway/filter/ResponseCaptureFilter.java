@@ -0,0 +1,35 @@
+package application.apigateway.filter;
+
+import application.apigateway.cache.CapturingResponseDecorator;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs just before NettyWriteResponseFilter so the response it writes goes
+ * through CapturingResponseDecorator. Route filters (which run later, after
+ * JwtAuthenticationFilter) can then capture GET bodies without being ordered
+ * ahead of authentication.
+ */
+@Component
+public class ResponseCaptureFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new CapturingResponseDecorator(exchange)).build())
+                .doFinally(signal -> CapturingResponseDecorator.complete(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,150 @@
+package application.apigateway.filter;
+
+import application.apigateway.resilience.RetryBudget;
+import application.apigateway.resilience.RetryBudgetRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Retries idempotent GETs that failed to connect, timed out or got 502/503/504,
+ * as long as the service's RetryBudget allows it. Other methods pass straight
+ * through. List it after CircuitBreaker so the breaker sees one outcome per
+ * request and an open breaker stops retries altogether.
+ */
+@Component
+public class RetryBudgetFilter extends AbstractGatewayFilterFactory<RetryBudgetFilter.Config> {
+
+    private final RetryBudgetRegistry registry;
+
+    public RetryBudgetFilter(RetryBudgetRegistry registry) {
+        super(Config.class);
+        this.registry = registry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String service = serviceName(exchange);
+            RetryBudget budget = registry.forService(service);
+            budget.deposit();
+            HttpHeaders gatewayHeaders = copyOf(exchange.getResponse().getHeaders());
+            return attempt(exchange, chain, config, service, budget, gatewayHeaders, 0);
+        };
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               String service, RetryBudget budget, HttpHeaders gatewayHeaders, int retriesDone) {
+        return chain.filter(exchange)
+                .then(Mono.defer(() -> {
+                    if (isRetryableStatus(exchange) && canRetry(exchange, config, service, budget, retriesDone)) {
+                        return retry(exchange, chain, config, service, budget, gatewayHeaders, retriesDone);
+                    }
+                    return Mono.<Void>empty();
+                }))
+                .onErrorResume(error -> {
+                    if (isRetryableError(error) && canRetry(exchange, config, service, budget, retriesDone)) {
+                        return retry(exchange, chain, config, service, budget, gatewayHeaders, retriesDone);
+                    }
+                    return Mono.error(error);
+                });
+    }
+
+    private Mono<Void> retry(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                             String service, RetryBudget budget, HttpHeaders gatewayHeaders, int retriesDone) {
+        // Release the failed upstream response before routing the request again
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+        }
+        exchange.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR);
+        exchange.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        ServerWebExchangeUtils.reset(exchange);
+        // NettyRoutingFilter only adds the upstream headers, so drop the failed attempt's
+        // (Content-Length, Transfer-Encoding, ...) and keep what the gateway set before it
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.clear();
+        headers.putAll(gatewayHeaders);
+        exchange.getResponse().setStatusCode(null);
+
+        Duration backoff = config.getBackoff().multipliedBy(retriesDone + 1);
+        return Mono.delay(backoff)
+                .then(Mono.defer(() ->
+                        attempt(exchange, chain, config, service, budget, gatewayHeaders, retriesDone + 1)));
+    }
+
+    private boolean canRetry(ServerWebExchange exchange, Config config, String service,
+                             RetryBudget budget, int retriesDone) {
+        if (retriesDone >= config.getRetries() || exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            registry.recordAttempt(service, "budget_exhausted");
+            return false;
+        }
+        registry.recordAttempt(service, "retried");
+        return true;
+    }
+
+    private static boolean isRetryableStatus(ServerWebExchange exchange) {
+        // Only statuses that came from the upstream, not ones the gateway set itself
+        if (exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR) == null) {
+            return false;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+
+    private static boolean isRetryableError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof IOException || t instanceof TimeoutException) {
+                return true;
+            }
+            if (t instanceof ResponseStatusException rse && rse.getStatusCode().value() == 504) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        headers.forEach((name, values) -> copy.put(name, List.copyOf(values)));
+        return copy;
+    }
+
+    private static String serviceName(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return "unknown";
+        }
+        return route.getUri().getHost() != null ? route.getUri().getHost() : route.getUri().toString();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int retries = 2;
+        private Duration backoff = Duration.ofMillis(50); // multiplied by the attempt number
+    }
+}
@@ -0,0 +1,94 @@
+package application.apigateway.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-route timers, tagged by route id and status class:
+ * <ul>
+ *   <li>gateway.route.requests - total time spent in the gateway filter chain</li>
+ *   <li>gateway.route.jwt - time spent in JwtAuthenticationFilter</li>
+ *   <li>gateway.route.upstream - time from sending the request upstream to its response headers</li>
+ * </ul>
+ * The total minus the other two is time spent in the gateway itself
+ * (service discovery, rate limiting, caching).
+ */
+@Component
+public class RouteMetricsFilter implements GlobalFilter, Ordered {
+
+    public static final String JWT_NANOS_ATTR = RouteMetricsFilter.class.getName() + ".jwtNanos";
+    public static final String UPSTREAM_NANOS_ATTR = RouteMetricsFilter.class.getName() + ".upstreamNanos";
+
+    private final MeterRegistry meterRegistry;
+
+    public RouteMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, System.nanoTime() - start));
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long totalNanos) {
+        Tags tags = Tags.of("routeId", routeId(exchange), "status", statusClass(exchange, signal));
+
+        timer("gateway.route.requests", "Total time spent handling a request in the gateway", tags)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+
+        Long jwtNanos = exchange.getAttribute(JWT_NANOS_ATTR);
+        if (jwtNanos != null) {
+            timer("gateway.route.jwt", "Time spent in JwtAuthenticationFilter", tags)
+                    .record(jwtNanos, TimeUnit.NANOSECONDS);
+        }
+
+        Long upstreamNanos = exchange.getAttribute(UPSTREAM_NANOS_ATTR);
+        if (upstreamNanos != null) {
+            timer("gateway.route.upstream", "Time to first byte of the upstream response", tags)
+                    .record(upstreamNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    private static String statusClass(ServerWebExchange exchange, SignalType signal) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null) {
+            return (status.value() / 100) + "xx";
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return "5xx";
+        }
+        return signal == SignalType.CANCEL ? "cancelled" : "unknown";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,109 @@
+package application.apigateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Default backend: buckets live in this gateway instance only.
+ * Every bucket is an immutable state swapped with compare-and-set, so request
+ * threads never block on each other.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiterBackend implements RateLimiterBackend {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ConcurrentHashMap<String, AtomicReference<Bucket>> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public InMemoryRateLimiterBackend(@Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        this(maxKeys, System::nanoTime);
+    }
+
+    // Tests drive the clock
+    InMemoryRateLimiterBackend(int maxKeys, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    @Override
+    public Mono<RateLimitResult> tryConsume(String key, double replenishRate, long burstCapacity) {
+        return Mono.fromSupplier(() -> consume(key, replenishRate, burstCapacity));
+    }
+
+    private RateLimitResult consume(String key, double replenishRate, long burstCapacity) {
+        AtomicReference<Bucket> ref = buckets.computeIfAbsent(key,
+                k -> new AtomicReference<>(new Bucket(burstCapacity, nanoClock.getAsLong(), replenishRate, burstCapacity)));
+
+        while (true) {
+            Bucket current = ref.get();
+            long now = nanoClock.getAsLong();
+            double tokens = current.tokensAt(now);
+
+            if (tokens < 1) {
+                maybeSweep(now);
+                long retryAfter = (long) Math.ceil((1 - tokens) / replenishRate);
+                return RateLimitResult.denied(retryAfter);
+            }
+
+            Bucket next = new Bucket(tokens - 1, now, replenishRate, burstCapacity);
+            if (ref.compareAndSet(current, next)) {
+                maybeSweep(now);
+                return RateLimitResult.allowed((long) next.tokens);
+            }
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Drop buckets that have refilled completely; they behave exactly like a new bucket.
+     */
+    private void maybeSweep(long now) {
+        long last = lastSweep.get();
+        if (buckets.size() <= maxKeys || now - last < SWEEP_INTERVAL_NANOS
+                || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.entrySet().removeIf(entry -> {
+            Bucket bucket = entry.getValue().get();
+            return bucket.tokensAt(now) >= bucket.capacity;
+        });
+    }
+
+    private static final class Bucket {
+
+        private final double tokens;
+        private final long updatedAtNanos;
+        private final double replenishRate;
+        private final long capacity;
+
+        private Bucket(double tokens, long updatedAtNanos, double replenishRate, long capacity) {
+            this.tokens = tokens;
+            this.updatedAtNanos = updatedAtNanos;
+            this.replenishRate = replenishRate;
+            this.capacity = capacity;
+        }
+
+        private double tokensAt(long now) {
+            double elapsedSeconds = (now - updatedAtNanos) / 1_000_000_000.0;
+            return Math.min(capacity, tokens + elapsedSeconds * replenishRate);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package application.apigateway.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of taking one token from a bucket.
+ */
+@Getter
+@AllArgsConstructor
+public class RateLimitResult {
+
+    private final boolean allowed;
+    private final long remaining;
+    private final long retryAfterSeconds; // 0 when allowed
+
+    public static RateLimitResult allowed(long remaining) {
+        return new RateLimitResult(true, remaining, 0);
+    }
+
+    public static RateLimitResult denied(long retryAfterSeconds) {
+        return new RateLimitResult(false, 0, Math.max(1, retryAfterSeconds));
+    }
+}
@@ -0,0 +1,12 @@
+package application.apigateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Token-bucket storage. Each key owns a bucket of burstCapacity tokens
+ * refilled continuously at replenishRate tokens per second.
+ */
+public interface RateLimiterBackend {
+
+    Mono<RateLimitResult> tryConsume(String key, double replenishRate, long burstCapacity);
+}
@@ -0,0 +1,57 @@
+package application.apigateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Shared backend for running several gateway replicas: the bucket is read,
+ * refilled and decremented atomically inside a Redis Lua script.
+ * If Redis is unreachable the request is let through rather than failing the route.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.backend", havingValue = "redis")
+@Slf4j
+public class RedisRateLimiterBackend implements RateLimiterBackend {
+
+    private static final String KEY_PREFIX = "gateway:rate-limit:";
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> script =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisRateLimiterBackend(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<RateLimitResult> tryConsume(String key, double replenishRate, long burstCapacity) {
+        List<String> keys = List.of(KEY_PREFIX + key);
+        List<String> args = List.of(Double.toString(replenishRate), Long.toString(burstCapacity));
+
+        return redisTemplate.execute(script, keys, args)
+                .next()
+                .map(this::toResult)
+                .onErrorResume(e -> {
+                    log.warn("Rate limiter backend unavailable, allowing request: {}", e.getMessage());
+                    return Mono.just(RateLimitResult.allowed(-1));
+                });
+    }
+
+    private RateLimitResult toResult(List<?> reply) {
+        boolean allowed = Long.valueOf(1L).equals(reply.get(0));
+        double tokens = Double.parseDouble(reply.get(1).toString());
+        if (allowed) {
+            return RateLimitResult.allowed((long) tokens);
+        }
+        return RateLimitResult.denied(Long.parseLong(reply.get(2).toString()));
+    }
+}
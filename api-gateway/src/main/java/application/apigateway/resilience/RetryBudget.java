@@ -0,0 +1,32 @@
+package application.apigateway.resilience;
+
+/**
+ * Caps retries to a fraction of traffic: every request deposits {@code ratio}
+ * of a token and every retry withdraws a whole one, so with a ratio of 0.1 at
+ * most one request in ten is retried over time. The balance starts full at
+ * {@code maxBalance}, which also bounds the retries a burst of failures can use.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxBalance;
+    private double balance;
+
+    public RetryBudget(double ratio, double maxBalance) {
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package application.apigateway.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One RetryBudget per downstream service, shared by every route that targets it.
+ */
+@Component
+public class RetryBudgetRegistry {
+
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final double ratio;
+    private final double maxBalance;
+
+    public RetryBudgetRegistry(MeterRegistry meterRegistry,
+                               @Value("${gateway.retry.budget-ratio:0.1}") double ratio,
+                               @Value("${gateway.retry.max-balance:10}") double maxBalance) {
+        this.meterRegistry = meterRegistry;
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+    }
+
+    public RetryBudget forService(String service) {
+        return budgets.computeIfAbsent(service, s -> new RetryBudget(ratio, maxBalance));
+    }
+
+    public void recordAttempt(String service, String outcome) {
+        Counter.builder("gateway.retry.attempts")
+                .description("Failed upstream GETs, by whether the retry budget allowed another attempt")
+                .tag("service", service)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,33 @@
+package application.apigateway.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the JSON error body the gateway returns when it answers a request itself.
+ */
+public final class GatewayErrorResponse {
+
+    private GatewayErrorResponse() {
+    }
+
+    public static Mono<Void> write(ServerWebExchange exchange, HttpStatus status, String errorMessage) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        String responseBody = String.format(
+                "{\"message\": \"%s\", \"status\": \"%s\"}",
+                errorMessage,
+                status.value()
+        );
+
+        byte[] bytes = responseBody.getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+}
@@ -0,0 +1,24 @@
+package application.apigateway.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature has already been verified.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtClaims {
+
+    private final String userId;
+    private final String email;
+    private final String role;
+    private final String permissions;
+    private final Instant expiresAt; // null when the token carries no exp claim
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
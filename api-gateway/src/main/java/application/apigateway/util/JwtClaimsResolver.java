@@ -0,0 +1,126 @@
+package application.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves a bearer token to its verified claims, parsing and checking the
+ * signature at most once per token while it stays in the cache.
+ * Tokens are keyed by their SHA-256 digest so raw tokens are never retained,
+ * and an entry never outlives the exp claim of its token.
+ */
+@Component
+public class JwtClaimsResolver {
+
+    private final JwtValidator jwtValidator;
+    private final Cache<String, JwtClaims> cache;
+    private final Duration maxTtl;
+
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final Timer invalidTimer;
+
+    public JwtClaimsResolver(JwtValidator jwtValidator,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.claims-cache.max-size:10000}") long maxSize,
+                             @Value("${jwt.claims-cache.max-ttl:PT5M}") Duration maxTtl) {
+        this.jwtValidator = jwtValidator;
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtClaims");
+        this.hitTimer = resolveTimer(meterRegistry, "hit");
+        this.missTimer = resolveTimer(meterRegistry, "miss");
+        this.invalidTimer = resolveTimer(meterRegistry, "invalid");
+    }
+
+    /**
+     * Returns the claims of a valid token, or empty if the token is malformed,
+     * badly signed or expired.
+     */
+    public Optional<JwtClaims> resolve(String token) {
+        long start = System.nanoTime();
+        String digest = digest(token);
+
+        JwtClaims cached = cache.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(Instant.now())) {
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(cached);
+        }
+
+        try {
+            JwtClaims claims = jwtValidator.parseClaims(token);
+            cache.put(digest, claims);
+            missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(claims);
+        } catch (Exception e) {
+            cache.invalidate(digest);
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        }
+    }
+
+    private static Timer resolveTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("gateway.jwt.resolve")
+                .description("Time to resolve a bearer token to verified claims")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expire each entry at the token's own exp claim, capped at max-ttl.
+     */
+    private class TokenExpiry implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+            if (claims.getExpiresAt() == null) {
+                return maxTtl.toNanos();
+            }
+            Duration untilExpiry = Duration.between(Instant.now(), claims.getExpiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return Math.min(untilExpiry.toNanos(), maxTtl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
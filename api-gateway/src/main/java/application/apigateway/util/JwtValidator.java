@@ -16,9 +16,30 @@ import java.util.function.Function;
 public class JwtValidator {
 
     private final SecretKey key;
+    private final JwtParser parser;
 
     public JwtValidator(@Value("${jwt.secret}") String secret) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+    }
+
+    /**
+     * Verify the signature and expiry once and return every claim the gateway forwards.
+     * Throws a JwtException (or IllegalArgumentException) when the token is not valid.
+     */
+    public JwtClaims parseClaims(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+
+        return new JwtClaims(
+                claims.get("userId", String.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("permissions", String.class),
+                expiration != null ? expiration.toInstant() : null
+        );
     }
 
     public boolean validateToken(String token) {
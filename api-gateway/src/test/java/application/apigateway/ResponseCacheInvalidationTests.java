@@ -0,0 +1,114 @@
+package application.apigateway;
+
+import application.apigateway.cache.CachedResponse;
+import application.apigateway.cache.ResponseCacheStore;
+import application.apigateway.filter.ResponseCacheInvalidationFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseCacheInvalidationTests {
+
+    private static final String ROUTE = "holidays";
+    private static final String KEY = ROUTE + "|/api/leave/holidays";
+
+    private ResponseCacheStore store;
+    private ResponseCacheInvalidationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        store = new ResponseCacheStore(new SimpleMeterRegistry(), 1 << 20, 1 << 16);
+        store.registerRoute(ROUTE, "/api/leave/holidays");
+        store.registerRoute("balances", "/api/leave/my-balances");
+        filter = new ResponseCacheInvalidationFilter(store);
+    }
+
+    @Test
+    void responseReadBeforeAnInvalidationIsNotStored() {
+        long generation = store.generation(ROUTE);
+        store.invalidateForWrite("/api/leave/holidays/3");
+
+        store.put(ROUTE, generation, KEY, response());
+
+        assertThat(store.getFresh(KEY)).isNull();
+    }
+
+    @Test
+    void responseReadAfterTheLastInvalidationIsStored() {
+        store.invalidateForWrite("/api/leave/holidays/3");
+        long generation = store.generation(ROUTE);
+
+        store.put(ROUTE, generation, KEY, response());
+
+        assertThat(store.getFresh(KEY)).isNotNull();
+    }
+
+    @Test
+    void writesUnderAnotherPrefixLeaveTheGenerationAlone() {
+        long generation = store.generation(ROUTE);
+        store.invalidateForWrite("/api/leave/my-balances");
+
+        assertThat(store.generation(ROUTE)).isEqualTo(generation);
+    }
+
+    @Test
+    void successfulWriteEvicts() {
+        cacheEntry();
+
+        write(HttpStatus.CREATED).block();
+
+        assertThat(store.getFresh(KEY)).isNull();
+    }
+
+    @Test
+    void rejectedWriteKeepsTheCache() {
+        cacheEntry();
+
+        write(HttpStatus.UNAUTHORIZED).block();
+        write(HttpStatus.TOO_MANY_REQUESTS).block();
+        write(HttpStatus.SERVICE_UNAVAILABLE).block();
+
+        assertThat(store.getFresh(KEY)).isNotNull();
+    }
+
+    @Test
+    void failedWriteKeepsTheCache() {
+        cacheEntry();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/leave/holidays"));
+        GatewayFilterChain chain = ex -> Mono.error(new IllegalStateException("upstream reset"));
+
+        assertThatThrownBy(() -> filter.filter(exchange, chain).block()).isInstanceOf(IllegalStateException.class);
+        assertThat(store.getFresh(KEY)).isNotNull();
+    }
+
+    private Mono<Void> write(HttpStatus status) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/leave/holidays"));
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+        return filter.filter(exchange, chain);
+    }
+
+    private void cacheEntry() {
+        store.put(ROUTE, store.generation(ROUTE), KEY, response());
+    }
+
+    private static CachedResponse response() {
+        Instant now = Instant.now();
+        return new CachedResponse(200, new HttpHeaders(), "[]".getBytes(), "W/\"x\"", now,
+                now.plus(Duration.ofMinutes(10)), now.plus(Duration.ofMinutes(10)));
+    }
+}
@@ -0,0 +1,132 @@
+package application.apigateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long COOLDOWN = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void fullyUsedLimitGrowsAboutOneEveryTwoRounds() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 100, 0.9);
+
+        for (int round = 0; round < 20; round++) {
+            fillAndRelease(limiter, false);
+        }
+
+        // Only the releases while at least half the limit is in flight count, each adding 1/limit
+        assertThat(limiter.getLimit()).isEqualTo(19);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void lightlyUsedLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 100, 0.9);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.tryAcquire(Priority.INTERACTIVE)).isTrue();
+            limiter.release(false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void growthStopsAtTheMaximum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 12, 0.9);
+
+        for (int round = 0; round < 100; round++) {
+            fillAndRelease(limiter, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(12);
+    }
+
+    @Test
+    void droppedResponseMultipliesTheLimitByTheBackoffRatio() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 100, 0.5);
+
+        acquireAndRelease(limiter, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void dropsWithinTheCooldownBackOffOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 100, 0.5);
+
+        acquireAndRelease(limiter, true);
+        advance(COOLDOWN - 1);
+        acquireAndRelease(limiter, true);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        advance(1);
+        acquireAndRelease(limiter, true);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void backoffStopsAtTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 100, 0.5);
+
+        for (int i = 0; i < 5; i++) {
+            acquireAndRelease(limiter, true);
+            advance(COOLDOWN);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void lowerPrioritiesAreShedFirst() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 100, 0.9);
+
+        assertThat(acquireAll(limiter, Priority.BATCH)).isEqualTo(5);
+        assertThat(acquireAll(limiter, Priority.STANDARD)).isEqualTo(3);
+        assertThat(acquireAll(limiter, Priority.INTERACTIVE)).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void everyPriorityGetsOneSlotAtTheSmallestLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 100, 0.9);
+
+        assertThat(limiter.tryAcquire(Priority.BATCH)).isTrue();
+        assertThat(limiter.tryAcquire(Priority.INTERACTIVE)).isFalse();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initial, int min, int max, double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter(initial, min, max, backoffRatio, COOLDOWN, clock::get);
+    }
+
+    private void advance(long nanos) {
+        clock.addAndGet(nanos);
+    }
+
+    private static void fillAndRelease(AdaptiveConcurrencyLimiter limiter, boolean dropped) {
+        int taken = acquireAll(limiter, Priority.INTERACTIVE);
+        for (int i = 0; i < taken; i++) {
+            limiter.release(dropped);
+        }
+    }
+
+    private static void acquireAndRelease(AdaptiveConcurrencyLimiter limiter, boolean dropped) {
+        assertThat(limiter.tryAcquire(Priority.INTERACTIVE)).isTrue();
+        limiter.release(dropped);
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, Priority priority) {
+        int taken = 0;
+        while (limiter.tryAcquire(priority)) {
+            taken++;
+        }
+        return taken;
+    }
+}
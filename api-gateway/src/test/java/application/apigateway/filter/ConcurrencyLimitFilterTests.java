@@ -0,0 +1,112 @@
+package application.apigateway.filter;
+
+import application.apigateway.concurrency.AdaptiveConcurrencyLimiter;
+import application.apigateway.concurrency.ConcurrencyLimiterRegistry;
+import application.apigateway.concurrency.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTests {
+
+    private final ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(
+            new SimpleMeterRegistry(), 1, 1, 10, 0.5, Duration.ZERO);
+    private final ConcurrencyLimitFilter factory = new ConcurrencyLimitFilter(
+            registry, Duration.ofMinutes(1), Duration.ofSeconds(1));
+    private final ConcurrencyReleaseFilter releaseFilter = new ConcurrencyReleaseFilter();
+    private final AdaptiveConcurrencyLimiter limiter = registry.forService("unknown");
+
+    @Test
+    void slotIsHeldUntilTheBodyIsWritten() {
+        AtomicInteger inFlightWhileWriting = new AtomicInteger(-1);
+        MockServerWebExchange exchange = exchange();
+
+        // The route chain completes on upstream headers; NettyWriteResponseFilter streams the body afterwards
+        releaseFilter.filter(exchange, ex -> routeFilter().filter(ex, upstream(HttpStatus.OK))
+                .then(Mono.fromRunnable(() -> inFlightWhileWriting.set(limiter.getInFlight())))).block();
+
+        assertThat(inFlightWhileWriting).hasValue(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void secondRequestIsRejectedWhileTheFirstHoldsTheSlot() {
+        MockServerWebExchange first = exchange();
+        routeFilter().filter(first, upstream(HttpStatus.OK)).block();
+
+        MockServerWebExchange second = exchange();
+        routeFilter().filter(second, upstream(HttpStatus.OK)).block();
+
+        assertThat(second.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(second.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("1");
+
+        releaseFilter.filter(first, ex -> Mono.empty()).block();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void serverErrorBacksOffTheLimit() {
+        raiseLimitTo(4);
+
+        MockServerWebExchange exchange = exchange();
+        releaseFilter.filter(exchange, ex -> routeFilter().filter(ex, upstream(HttpStatus.BAD_GATEWAY))).block();
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void failedRequestReleasesOnceAndBacksOff() {
+        raiseLimitTo(4);
+        MockServerWebExchange exchange = exchange();
+
+        assertThatThrownBy(() -> releaseFilter.filter(exchange, ex -> routeFilter()
+                .filter(ex, e -> Mono.error(new IllegalStateException("connection reset")))).block())
+                .isInstanceOf(IllegalStateException.class);
+        ConcurrencyLimitFilter.release(exchange, SignalType.ON_COMPLETE);
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    private GatewayFilter routeFilter() {
+        ConcurrencyLimitFilter.Config config = new ConcurrencyLimitFilter.Config();
+        config.setPriority(Priority.INTERACTIVE);
+        return factory.apply(config);
+    }
+
+    private void raiseLimitTo(int target) {
+        // Growth only counts while the limit is in use, so fill it each round
+        while (limiter.getLimit() < target) {
+            int taken = 0;
+            while (limiter.tryAcquire(Priority.INTERACTIVE)) {
+                taken++;
+            }
+            for (int i = 0; i < taken; i++) {
+                limiter.release(false);
+            }
+        }
+    }
+
+    private static GatewayFilterChain upstream(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/leave/my-requests"));
+    }
+}
@@ -0,0 +1,144 @@
+package application.apigateway.filter;
+
+import application.apigateway.ratelimit.RateLimitResult;
+import application.apigateway.ratelimit.RateLimiterBackend;
+import application.apigateway.ratelimit.RedisRateLimiterBackend;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTests {
+
+    private final List<String> keys = new ArrayList<>();
+    private RateLimitResult nextResult = RateLimitResult.allowed(7);
+
+    private final RateLimiterBackend recordingBackend = (key, rate, burst) -> {
+        keys.add(key);
+        return Mono.just(nextResult);
+    };
+
+    @Test
+    void keysByUserWhenTheGatewayResolvedOne() {
+        run(filter(0, config(RateLimitFilter.KeySource.USER, "leave-writes")),
+                request().header("X-User-Id", "42"));
+
+        assertThat(keys).containsExactly("leave-writes:user:42");
+    }
+
+    @Test
+    void userKeyFallsBackToTheClientAddress() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("leave-service").uri("http://localhost").predicate(e -> true).build());
+
+        filter(0, config(RateLimitFilter.KeySource.USER, null)).filter(exchange, passThrough(new AtomicBoolean())).block();
+
+        assertThat(keys).containsExactly("leave-service:ip:10.0.0.1");
+    }
+
+    @Test
+    void ipKeyIgnoresTheUserHeader() {
+        run(filter(0, config(RateLimitFilter.KeySource.IP, "login")), request().header("X-User-Id", "42"));
+
+        assertThat(keys).containsExactly("login:ip:10.0.0.1");
+    }
+
+    @Test
+    void forwardedForIsOnlyTrustedUpToTheConfiguredHops() {
+        run(filter(0, config(RateLimitFilter.KeySource.IP, "login")),
+                request().header("X-Forwarded-For", "203.0.113.9"));
+        run(filter(1, config(RateLimitFilter.KeySource.IP, "login")),
+                request().header("X-Forwarded-For", "203.0.113.9"));
+
+        assertThat(keys).containsExactly("login:ip:10.0.0.1", "login:ip:203.0.113.9");
+    }
+
+    @Test
+    void allowedRequestPassesWithTheRemainingTokens() {
+        AtomicBoolean forwarded = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request());
+
+        filter(0, config(RateLimitFilter.KeySource.IP, "login")).filter(exchange, passThrough(forwarded)).block();
+
+        assertThat(forwarded).isTrue();
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("7");
+    }
+
+    @Test
+    void deniedRequestGets429WithRetryAfter() {
+        nextResult = RateLimitResult.denied(3);
+        AtomicBoolean forwarded = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request());
+
+        filter(0, config(RateLimitFilter.KeySource.IP, "login")).filter(exchange, passThrough(forwarded)).block();
+
+        assertThat(forwarded).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(exchange.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("3");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("0");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableRedisLetsRequestsThrough() {
+        ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+        when(redis.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("connection refused")));
+        RateLimitFilter filter = new RateLimitFilter(new RedisRateLimiterBackend(redis), 0);
+        AtomicBoolean forwarded = new AtomicBoolean();
+        MockServerWebExchange exchange = MockServerWebExchange.from(request());
+
+        filter.apply(config(RateLimitFilter.KeySource.IP, "login")).filter(exchange, passThrough(forwarded)).block();
+
+        assertThat(forwarded).isTrue();
+        // No token count is known, so none is advertised
+        assertThat(exchange.getResponse().getHeaders().containsKey("X-RateLimit-Remaining")).isFalse();
+    }
+
+    private GatewayFilter filter(int trustedProxyHops, RateLimitFilter.Config config) {
+        return new RateLimitFilter(recordingBackend, trustedProxyHops).apply(config);
+    }
+
+    private static void run(GatewayFilter filter, MockServerHttpRequest.BaseBuilder<?> request) {
+        filter.filter(MockServerWebExchange.from(request), passThrough(new AtomicBoolean())).block();
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> request() {
+        return MockServerHttpRequest.get("/api/leave/my-requests")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 50000));
+    }
+
+    private static GatewayFilterChain passThrough(AtomicBoolean forwarded) {
+        return exchange -> {
+            forwarded.set(true);
+            return Mono.empty();
+        };
+    }
+
+    private static RateLimitFilter.Config config(RateLimitFilter.KeySource keySource, String budget) {
+        RateLimitFilter.Config config = new RateLimitFilter.Config();
+        config.setKeySource(keySource);
+        config.setBudget(budget);
+        return config;
+    }
+}
@@ -0,0 +1,172 @@
+package application.apigateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingFilterTests {
+
+    private static final int FOLLOWERS = 9;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescingFilter factory = new RequestCoalescingFilter(meterRegistry);
+    private final ResponseCaptureFilter captureFilter = new ResponseCaptureFilter();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> leaderGate = Sinks.empty();
+
+    @Test
+    void concurrentIdenticalGetsMakeOneUpstreamCall() {
+        GatewayFilter filter = filter(Duration.ofSeconds(10));
+        GatewayFilterChain upstream = upstream(call -> leaderGate.asMono().then(ok("balance-" + call)));
+        List<MockServerWebExchange> exchanges = exchanges(FOLLOWERS + 1);
+
+        List<Mono<Void>> requests = new ArrayList<>();
+        exchanges.forEach(exchange -> requests.add(pipeline(filter, exchange, upstream)));
+        requests.add(Mono.fromRunnable(leaderGate::tryEmitEmpty));   // answer once everyone has joined
+        Mono.when(requests).block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(1);
+        exchanges.forEach(exchange -> {
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(body(exchange)).isEqualTo("balance-1");
+        });
+        assertThat(count("follower")).isEqualTo(FOLLOWERS);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void followersGoUpstreamWhenTheLeaderFails() {
+        GatewayFilter filter = filter(Duration.ofSeconds(10));
+        GatewayFilterChain upstream = upstream(call -> call == 1
+                ? leaderGate.asMono().then(Mono.error(new IllegalStateException("connection reset")))
+                : ok("balance-" + call));
+        List<MockServerWebExchange> exchanges = exchanges(FOLLOWERS + 1);
+
+        List<Mono<Void>> requests = new ArrayList<>();
+        requests.add(pipeline(filter, exchanges.get(0), upstream).onErrorResume(IllegalStateException.class, e -> Mono.empty()));
+        exchanges.subList(1, exchanges.size()).forEach(exchange -> requests.add(pipeline(filter, exchange, upstream)));
+        requests.add(Mono.fromRunnable(leaderGate::tryEmitEmpty));
+        Mono.when(requests).block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(FOLLOWERS + 1);
+        exchanges.subList(1, exchanges.size())
+                .forEach(exchange -> assertThat(body(exchange)).startsWith("balance-").isNotEqualTo("balance-1"));
+        assertThat(count("fallback")).isEqualTo(FOLLOWERS);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void followersGoUpstreamWhenTheLeaderOutlastsMaxWait() {
+        GatewayFilter filter = filter(Duration.ofMillis(50));
+        GatewayFilterChain upstream = upstream(call -> call == 1
+                ? leaderGate.asMono().then(ok("balance-1"))
+                : ok("balance-" + call));
+        List<MockServerWebExchange> exchanges = exchanges(FOLLOWERS + 1);
+
+        Disposable leader = pipeline(filter, exchanges.get(0), upstream).subscribe();
+        List<Mono<Void>> followers = new ArrayList<>();
+        exchanges.subList(1, exchanges.size()).forEach(exchange -> followers.add(pipeline(filter, exchange, upstream)));
+        Mono.when(followers).block(Duration.ofSeconds(5));
+
+        assertThat(leader.isDisposed()).isFalse();
+        assertThat(upstreamCalls).hasValue(FOLLOWERS + 1);
+        assertThat(count("fallback")).isEqualTo(FOLLOWERS);
+        leaderGate.tryEmitEmpty();
+        assertThat(body(exchanges.get(0))).isEqualTo("balance-1");
+    }
+
+    @Test
+    void cancelledLeaderReleasesItsFollowers() {
+        GatewayFilter filter = filter(Duration.ofSeconds(10));
+        GatewayFilterChain upstream = upstream(call -> call == 1
+                ? leaderGate.asMono().then(ok("balance-1"))
+                : ok("balance-" + call));
+        List<MockServerWebExchange> exchanges = exchanges(FOLLOWERS + 1);
+
+        Disposable leader = pipeline(filter, exchanges.get(0), upstream).subscribe();
+        List<Mono<Void>> requests = new ArrayList<>();
+        exchanges.subList(1, exchanges.size()).forEach(exchange -> requests.add(pipeline(filter, exchange, upstream)));
+        requests.add(Mono.fromRunnable(leader::dispose));   // the client went away
+        Mono.when(requests).block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(FOLLOWERS + 1);
+        assertThat(count("fallback")).isEqualTo(FOLLOWERS);
+        assertThat(inFlight()).isZero();
+
+        // The key is free again, so the next request leads
+        pipeline(filter, exchanges(1).get(0), upstream).block(Duration.ofSeconds(5));
+        assertThat(count("leader")).isEqualTo(2);
+    }
+
+    private GatewayFilter filter(Duration maxWait) {
+        RequestCoalescingFilter.Config config = new RequestCoalescingFilter.Config();
+        config.setRouteId("balances");
+        config.setMaxWait(maxWait);
+        return factory.apply(config);
+    }
+
+    /**
+     * ResponseCaptureFilter sits in front of every route filter in the gateway and
+     * is what reports the body and completion back to RequestCoalescingFilter.
+     */
+    private Mono<Void> pipeline(GatewayFilter filter, MockServerWebExchange exchange, GatewayFilterChain upstream) {
+        return captureFilter.filter(exchange, ex -> filter.filter(ex, upstream));
+    }
+
+    private GatewayFilterChain upstream(IntFunction<Mono<ResponseWriter>> response) {
+        return exchange -> {
+            int call = upstreamCalls.incrementAndGet();
+            return response.apply(call).flatMap(writer -> writer.write(exchange.getResponse()));
+        };
+    }
+
+    private static Mono<ResponseWriter> ok(String body) {
+        return Mono.just(response -> {
+            response.setStatusCode(HttpStatus.OK);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        });
+    }
+
+    private static List<MockServerWebExchange> exchanges(int count) {
+        List<MockServerWebExchange> exchanges = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            exchanges.add(MockServerWebExchange.from(MockServerHttpRequest.get("/api/leave/balances?year=2026")));
+        }
+        return exchanges;
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    private double count(String role) {
+        return meterRegistry.get("gateway.coalesce.requests").tag("role", role).counter().count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.coalesce.in.flight").gauge().value();
+    }
+
+    @FunctionalInterface
+    private interface ResponseWriter {
+        Mono<Void> write(ServerHttpResponse response);
+    }
+}
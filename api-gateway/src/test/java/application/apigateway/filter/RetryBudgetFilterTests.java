@@ -0,0 +1,171 @@
+package application.apigateway.filter;
+
+import application.apigateway.resilience.RetryBudgetRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryBudgetFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @ParameterizedTest
+    @ValueSource(ints = {502, 503, 504})
+    void retriesGatewayErrorsFromTheUpstream(int status) {
+        MockServerWebExchange exchange = get();
+
+        filter(10, 2).filter(exchange, upstream(status, 200)).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(attempts("retried")).isEqualTo(1);
+    }
+
+    @Test
+    void retriesConnectionFailures() {
+        MockServerWebExchange exchange = get();
+        GatewayFilterChain upstream = ex -> upstreamCalls.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException(new ConnectException("Connection refused")))
+                : respond(ex, 200);
+
+        filter(10, 2).filter(exchange, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        MockServerWebExchange exchange = get();
+
+        filter(10, 2).filter(exchange, upstream(500, 200)).block();
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        GatewayFilterChain failing = ex -> Mono.error(new IllegalArgumentException("bad route"));
+        assertThatThrownBy(() -> filter(10, 2).filter(get(), failing).block())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void statusTheGatewaySetItselfIsNotRetried() {
+        MockServerWebExchange exchange = get();
+        GatewayFilterChain circuitBreakerFallback = ex -> {
+            upstreamCalls.incrementAndGet();
+            ex.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return Mono.empty();
+        };
+
+        filter(10, 2).filter(exchange, circuitBreakerFallback).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void nonGetRequestsPassThrough() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/leave/requests"));
+
+        filter(10, 2).filter(exchange, upstream(503, 200)).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void stopsAfterTheConfiguredRetries() {
+        MockServerWebExchange exchange = get();
+
+        filter(10, 2).filter(exchange, upstream(503, 503, 503, 200)).block();
+
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void exhaustedBudgetStopsRetries() {
+        GatewayFilter filter = filter(1, 2);
+
+        filter.filter(get(), upstream(503, 200)).block();
+        upstreamCalls.set(0);
+        MockServerWebExchange exchange = get();
+        filter.filter(exchange, upstream(503, 200)).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(attempts("budget_exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void retriedResponseCarriesOnlyItsOwnUpstreamHeaders() {
+        MockServerWebExchange exchange = get();
+        exchange.getResponse().getHeaders().set("X-RateLimit-Remaining", "7");
+        GatewayFilterChain upstream = ex -> {
+            boolean first = upstreamCalls.incrementAndGet() == 1;
+            // NettyRoutingFilter adds the upstream headers to whatever is already there
+            ex.getResponse().getHeaders().add("Content-Length", first ? "19" : "42");
+            ex.getResponse().getHeaders().add(first ? "Retry-After" : "ETag", first ? "30" : "\"v2\"");
+            return respond(ex, first ? 503 : 200);
+        };
+
+        filter(10, 2).filter(exchange, upstream).block();
+
+        assertThat(exchange.getResponse().getHeaders().get("Content-Length")).containsExactly("42");
+        assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo("\"v2\"");
+        assertThat(exchange.getResponse().getHeaders().containsKey("Retry-After")).isFalse();
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining")).isEqualTo("7");
+    }
+
+    private GatewayFilter filter(double maxBalance, int retries) {
+        RetryBudgetFilter factory = new RetryBudgetFilter(new RetryBudgetRegistry(meterRegistry, 0.1, maxBalance));
+        RetryBudgetFilter.Config config = new RetryBudgetFilter.Config();
+        config.setRetries(retries);
+        config.setBackoff(Duration.ZERO);
+        return factory.apply(config);
+    }
+
+    /**
+     * Answers each call with the next status, as if it came from the upstream service.
+     */
+    private GatewayFilterChain upstream(Integer... statuses) {
+        Deque<Integer> remaining = new ArrayDeque<>(Arrays.asList(statuses));
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return respond(exchange, remaining.size() > 1 ? remaining.poll() : remaining.peek());
+        };
+    }
+
+    private static Mono<Void> respond(ServerWebExchange exchange, int status) {
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR, new Object());
+        exchange.getResponse().setStatusCode(HttpStatusCode.valueOf(status));
+        return Mono.empty();
+    }
+
+    private double attempts(String outcome) {
+        return meterRegistry.get("gateway.retry.attempts").tag("outcome", outcome).counter().count();
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/leave/balances"));
+    }
+}
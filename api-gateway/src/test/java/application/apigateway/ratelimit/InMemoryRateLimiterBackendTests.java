@@ -0,0 +1,171 @@
+package application.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimiterBackendTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void fullBucketAllowsTheBurstThenDenies() {
+        InMemoryRateLimiterBackend backend = backend(100);
+
+        for (int i = 4; i >= 0; i--) {
+            RateLimitResult result = consume(backend, "a", 1, 5);
+            assertThat(result.isAllowed()).isTrue();
+            assertThat(result.getRemaining()).isEqualTo(i);
+        }
+
+        RateLimitResult denied = consume(backend, "a", 1, 5);
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getRetryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void refillsAtTheReplenishRate() {
+        InMemoryRateLimiterBackend backend = backend(100);
+        drain(backend, "a", 2, 10);
+
+        advance(Duration.ofMillis(1500));
+
+        assertThat(allowedOf(backend, "a", 2, 10, 10)).isEqualTo(3);
+    }
+
+    @Test
+    void refillStopsAtTheBurstCapacity() {
+        InMemoryRateLimiterBackend backend = backend(100);
+        drain(backend, "a", 5, 10);
+
+        advance(Duration.ofHours(1));
+
+        assertThat(allowedOf(backend, "a", 5, 10, 50)).isEqualTo(10);
+    }
+
+    @Test
+    void retryAfterCoversTheTimeToTheNextToken() {
+        InMemoryRateLimiterBackend backend = backend(100);
+        drain(backend, "a", 0.25, 1);
+
+        assertThat(consume(backend, "a", 0.25, 1).getRetryAfterSeconds()).isEqualTo(4);
+        advance(Duration.ofSeconds(3));
+        assertThat(consume(backend, "a", 0.25, 1).getRetryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        InMemoryRateLimiterBackend backend = backend(100);
+        drain(backend, "a", 1, 3);
+
+        assertThat(consume(backend, "b", 1, 3).isAllowed()).isTrue();
+    }
+
+    @Test
+    void concurrentConsumersNeverTakeMoreThanTheCapacity() throws Exception {
+        InMemoryRateLimiterBackend backend = backend(100);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> allowed = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                allowed.add(pool.submit(() -> {
+                    start.await();
+                    return allowedOf(backend, "shared", 1, 1000, 500);
+                }));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> count : allowed) {
+                total += count.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(1000);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sweepDropsRefilledBucketsOnceOverMaxKeys() {
+        InMemoryRateLimiterBackend backend = backend(2);
+        consume(backend, "refills", 1, 10);
+        drain(backend, "drained", 0.001, 10);
+        consume(backend, "also-refills", 1, 10);
+        assertThat(backend.bucketCount()).isEqualTo(3);
+
+        advance(Duration.ofSeconds(11));
+        consume(backend, "new", 1, 10);
+
+        // The drained bucket still holds state worth keeping; the refilled ones equal a new bucket
+        assertThat(backend.bucketCount()).isEqualTo(2);
+        assertThat(consume(backend, "drained", 0.001, 10).isAllowed()).isFalse();
+    }
+
+    @Test
+    void noSweepAtOrBelowMaxKeys() {
+        InMemoryRateLimiterBackend backend = backend(3);
+        consume(backend, "a", 1, 10);
+        consume(backend, "b", 1, 10);
+
+        advance(Duration.ofMinutes(1));
+        consume(backend, "c", 1, 10);
+
+        assertThat(backend.bucketCount()).isEqualTo(3);
+    }
+
+    @Test
+    void sweepRunsAtMostEveryTenSeconds() {
+        InMemoryRateLimiterBackend backend = backend(1);
+        consume(backend, "a", 1, 10);
+        advance(Duration.ofSeconds(11));
+        consume(backend, "b", 1, 10);   // sweeps "a"
+        assertThat(backend.bucketCount()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(5));
+        consume(backend, "c", 1, 10);   // "b" has refilled, but the last sweep was 5s ago
+
+        assertThat(backend.bucketCount()).isEqualTo(2);
+    }
+
+    private InMemoryRateLimiterBackend backend(int maxKeys) {
+        return new InMemoryRateLimiterBackend(maxKeys, clock::get);
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static RateLimitResult consume(InMemoryRateLimiterBackend backend, String key,
+                                           double replenishRate, long burstCapacity) {
+        return backend.tryConsume(key, replenishRate, burstCapacity).block();
+    }
+
+    private static void drain(InMemoryRateLimiterBackend backend, String key, double replenishRate, long burstCapacity) {
+        while (consume(backend, key, replenishRate, burstCapacity).isAllowed()) {
+            // keep taking
+        }
+    }
+
+    private static int allowedOf(InMemoryRateLimiterBackend backend, String key,
+                                 double replenishRate, long burstCapacity, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (consume(backend, key, replenishRate, burstCapacity).isAllowed()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,64 @@
+package application.apigateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTests {
+
+    @Test
+    void startsFullAtMaxBalance() {
+        RetryBudget budget = new RetryBudget(0.1, 3);
+
+        assertThat(withdrawAll(budget)).isEqualTo(3);
+    }
+
+    @Test
+    void retriesSettleAtTheRatioOfRequests() {
+        RetryBudget budget = new RetryBudget(0.1, 3);
+        withdrawAll(budget);
+
+        int retries = 0;
+        for (int request = 0; request < 1000; request++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                retries++;
+            }
+        }
+
+        // Floating point sums of 0.1 can leave the tenth deposit just short of a token
+        assertThat(retries).isBetween(99, 100);
+    }
+
+    @Test
+    void depositsStopAtMaxBalance() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(withdrawAll(budget)).isEqualTo(2);
+    }
+
+    @Test
+    void partialTokenIsNotEnoughForARetry() {
+        RetryBudget budget = new RetryBudget(0.4, 2);
+        withdrawAll(budget);
+
+        budget.deposit();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    private static int withdrawAll(RetryBudget budget) {
+        int withdrawn = 0;
+        while (budget.tryWithdraw()) {
+            withdrawn++;
+        }
+        return withdrawn;
+    }
+}
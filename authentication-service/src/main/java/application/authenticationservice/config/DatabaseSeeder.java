@@ -3,6 +3,7 @@ package application.authenticationservice.config;
 import application.authenticationservice.Enum.Role;
 import application.authenticationservice.entity.User;
 import application.authenticationservice.repository.UserRepository;
+import application.authenticationservice.service.UserOutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -16,6 +17,7 @@ public class DatabaseSeeder implements CommandLineRunner {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserOutboxService userOutboxService;
 
     @Override
     public void run(String... args) throws Exception {
@@ -36,6 +38,7 @@ public class DatabaseSeeder implements CommandLineRunner {
             admin.setTwoFaEnabled(false);
 
             userRepository.save(admin);
+            userOutboxService.publish(admin.getId());
 
             log.info("Admin user seeded successfully");
             log.info("Email: {}", adminEmail);
@@ -0,0 +1,80 @@
+package application.authenticationservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Outbound HTTP client for calls to Google. Connections are pooled and kept
+ * alive, and every phase has a timeout: connect, waiting for a pooled
+ * connection, and reading the response. A slow Google endpoint then fails
+ * fast instead of pinning request threads. Pool usage is exported as
+ * httpcomponents.httpclient.pool.* and calls as http.client.requests.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${auth.http-client.max-connections:50}") int maxConnections,
+            @Value("${auth.http-client.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${auth.http-client.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${auth.http-client.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${auth.http-client.connection-ttl:PT5M}") Duration connectionTtl) {
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "outbound").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(
+            PoolingHttpClientConnectionManager httpConnectionManager,
+            @Value("${auth.http-client.pool-acquire-timeout:PT1S}") Duration poolAcquireTimeout,
+            @Value("${auth.http-client.read-timeout:PT5S}") Duration readTimeout) {
+
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient) {
+        // Built through RestTemplateBuilder so Boot's observation customizer records http.client.requests
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+}
@@ -1,15 +1,22 @@
 package application.authenticationservice.config;
 
 import com.warrenstrange.googleauth.GoogleAuthenticator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.web.client.RestTemplate;
 
 @Configuration
 @EnableWebSecurity
@@ -25,12 +32,45 @@ public class SecurityConfig {
         return new GoogleAuthenticator();
     }
 
+    /**
+     * Actuator endpoints: health stays open for load balancers and Eureka, the rest
+     * (metrics, prometheus, info) need the actuator user over HTTP Basic.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .anyRequest().hasRole("ACTUATOR")
+                )
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    /**
+     * The only user known to Spring Security, for Prometheus scrapes. Its password is
+     * configured as a BCrypt hash; without one the protected endpoints stay closed.
+     */
+    @Bean
+    public UserDetailsService actuatorUsers(@Value("${auth.actuator.username:actuator}") String username,
+                                            @Value("${auth.actuator.password-hash:}") String passwordHash) {
+        if (passwordHash.isBlank()) {
+            return new InMemoryUserDetailsManager();
+        }
+        return new InMemoryUserDetailsManager(User.withUsername(username)
+                .password(passwordHash)
+                .roles("ACTUATOR")
+                .build());
     }
 
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
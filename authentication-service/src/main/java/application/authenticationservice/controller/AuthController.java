@@ -3,29 +3,39 @@ package application.authenticationservice.controller;
 import application.authenticationservice.dto.*;
 import application.authenticationservice.util.*;
 import application.authenticationservice.entity.User;
+import application.authenticationservice.exceptions.PasswordHashingBusyException;
 import application.authenticationservice.exceptions.UnauthorizedException;
 import application.authenticationservice.service.AuthService;
+import application.authenticationservice.service.UserOutboxService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final AuthService authService;
+    private final UserOutboxService userOutboxService;
     private final JwtHandler jwtHandler;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/register")
     @Transactional
@@ -58,6 +68,19 @@ public class AuthController {
 
             // Return 200 OK with JWT token
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingBusyException e) {
+            throw e; // 503 from GlobalExceptionHandler, not a credentials failure
+        } catch (RuntimeException e) {
+            AuthResponse errorResponse = new AuthResponse();
+            errorResponse.setMessage(e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
         } catch (RuntimeException e) {
             AuthResponse errorResponse = new AuthResponse();
             errorResponse.setMessage(e.getMessage());
@@ -137,6 +160,12 @@ public class AuthController {
         }
     }
 
+    // Batch lookup for other services: one query for every id on a page or report
+    @PostMapping("/users/batch")
+    public ResponseEntity<List<UserSummary>> getUsersByIds(@RequestBody Set<Long> userIds) {
+        return ResponseEntity.ok(authService.getUsersByIds(userIds));
+    }
+
     @PostMapping("/login/google")
     public ResponseEntity<AuthResponse> loginWithGoogle(
             @RequestBody GoogleLoginRequest request) {
@@ -158,7 +187,7 @@ public class AuthController {
     @GetMapping("/all-users")
     public ResponseEntity<List<AuthResponse>> getAllUsers() {
 
-        List<User> users = authService.getAllUsers();
+        List<UserSummary> users = authService.getAllUsers();
 
         List<AuthResponse> responses = users.stream()
                 .map(user -> new AuthResponse(
@@ -166,7 +195,7 @@ public class AuthController {
                         user.getEmail(),
                         user.getFirstName(),
                         user.getLastName(),
-                        user.getRole().name(),
+                        user.getRole(),
                         user.getProfilePictureUrl(),
                         user.getTwoFaEnabled(),
                         false,
@@ -177,5 +206,51 @@ public class AuthController {
         return ResponseEntity.ok(responses);
     }
 
+    // Keyset-paginated listing: pass the previous page's nextAfterId as afterId
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserPage> listUsers(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(authService.listUsers(afterId, limit));
+    }
+
+    // Change feed for services that replicate users: ids changed after the given cursor
+    @GetMapping("/users/changes")
+    public ResponseEntity<UserChangePage> getUserChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(userOutboxService.readChanges(after, limit));
+    }
+
+    // Where to start reading the change feed after a full copy of /users
+    @GetMapping("/users/changes/latest")
+    public ResponseEntity<Long> getLatestUserChange() {
+        return ResponseEntity.ok(userOutboxService.latestCursor());
+    }
+
+    // Same listing as NDJSON (one user per line), walked page by page so memory stays constant
+    @GetMapping(value = "/users", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "500") int pageSize) {
+
+        StreamingResponseBody body = out -> {
+            Long cursor = afterId;
+            do {
+                UserPage page = authService.listUsers(cursor, pageSize);
+                for (UserSummary user : page.getUsers()) {
+                    out.write(objectMapper.writeValueAsBytes(user));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.getNextAfterId();
+            } while (cursor != null);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
 
 }
\ No newline at end of file
@@ -22,6 +22,10 @@ public class AuthResponse {
     private String accessToken;
     private Long expiresIn; // Token expiration time in milliseconds
 
+    // Refresh token, rotated on every use of /api/auth/refresh
+    private String refreshToken;
+    private Long refreshExpiresIn; // Refresh token expiration time in milliseconds
+
 
 
     // Constructor without tokens (for 2FA and error responses)
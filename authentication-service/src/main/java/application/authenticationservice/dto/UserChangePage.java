@@ -0,0 +1,17 @@
+package application.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of the user change feed (GET /api/auth/users/changes)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangePage {
+    private List<Long> userIds;     // distinct ids of users changed in this page
+    private Long nextCursor;        // pass as after for the next page
+    private boolean resyncRequired; // events after the given cursor were already purged
+}
@@ -0,0 +1,16 @@
+package application.authenticationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of the keyset-paginated user listing
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserSummary> users;
+    private Long nextAfterId; // pass as afterId for the next page; null on the last page
+}
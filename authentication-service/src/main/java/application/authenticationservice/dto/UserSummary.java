@@ -0,0 +1,26 @@
+package application.authenticationservice.dto;
+
+import application.authenticationservice.Enum.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Public view of a user for other services (no password, 2FA secret or Google id)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String role;
+    private String profilePictureUrl;
+    private Boolean twoFaEnabled;
+
+    // Used by the JPQL constructor projections in UserRepository
+    public UserSummary(Long id, String email, String firstName, String lastName, Role role,
+                       String profilePictureUrl, Boolean twoFaEnabled) {
+        this(id, email, firstName, lastName, role.name(), profilePictureUrl, twoFaEnabled);
+    }
+}
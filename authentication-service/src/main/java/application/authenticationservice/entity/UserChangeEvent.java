@@ -0,0 +1,44 @@
+package application.authenticationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row recording that a user's replicated fields changed.
+ * It carries only the user id; consumers fetch the current state, so replaying
+ * an event is harmless and events never need to be applied in order.
+ * The id of the writing transaction, filled in by Postgres, is the consumers' cursor.
+ */
+@Entity
+@Table(name = "user_outbox", indexes = {
+        @Index(name = "idx_user_outbox_created_at", columnList = "created_at"),
+        @Index(name = "idx_user_outbox_xid", columnList = "xid")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // DEFAULT pg_current_xact_id(), see V4__user_outbox_xid.sql
+    @Column(name = "xid", nullable = false, insertable = false, updatable = false)
+    private Long xid;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
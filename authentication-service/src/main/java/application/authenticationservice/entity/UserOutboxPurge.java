@@ -0,0 +1,24 @@
+package application.authenticationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row (id 1) recording how far the user outbox has been purged:
+ * every event written by a transaction with an id up to purgedThrough is gone.
+ */
+@Entity
+@Table(name = "user_outbox_purge")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOutboxPurge {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "purged_through", nullable = false)
+    private Long purgedThrough;
+}
@@ -0,0 +1,7 @@
+package application.authenticationservice.exceptions;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package application.authenticationservice.repository;
+
+import application.authenticationservice.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Conditional so that of two concurrent refreshes with the same token exactly one wins
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.id = :id AND t.revoked = false")
+    int markUsed(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    // A rotated token is kept until it expires so that presenting it again still revokes its family;
+    // once the family has no live token left there is nothing for it to protect
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now OR (t.revoked = true AND NOT EXISTS ("
+            + "SELECT live.id FROM RefreshToken live WHERE live.familyId = t.familyId"
+            + " AND live.revoked = false AND live.expiresAt >= :now))")
+    int deleteExpiredOrRevoked(@Param("now") LocalDateTime now);
+}
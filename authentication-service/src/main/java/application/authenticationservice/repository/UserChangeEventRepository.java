@@ -0,0 +1,37 @@
+package application.authenticationservice.repository;
+
+import application.authenticationservice.entity.UserChangeEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    // Events of the first :limit transactions after the cursor that have finished, along with
+    // every one before them: all transactions with an id below pg_snapshot_xmin are done.
+    // Whole transactions are returned so a page never ends halfway through one.
+    @Query(value = "SELECT * FROM user_outbox WHERE xid IN ("
+            + "SELECT DISTINCT xid FROM user_outbox WHERE xid > :after"
+            + " AND xid < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)"
+            + " ORDER BY xid LIMIT :limit)"
+            + " ORDER BY xid, id", nativeQuery = true)
+    List<UserChangeEvent> findCommittedAfter(@Param("after") long after, @Param("limit") int limit);
+
+    // Highest transaction id below which every transaction has finished
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) - 1",
+            nativeQuery = true)
+    long findCommittedThrough();
+
+    @Query("SELECT MAX(e.xid) FROM UserChangeEvent e WHERE e.createdAt < :createdBefore")
+    Long findLatestXidCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+
+    @Modifying
+    @Query("DELETE FROM UserChangeEvent e WHERE e.xid <= :purgeThrough")
+    int deleteThrough(@Param("purgeThrough") Long purgeThrough);
+}
@@ -0,0 +1,20 @@
+package application.authenticationservice.repository;
+
+import application.authenticationservice.entity.UserOutboxPurge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserOutboxPurgeRepository extends JpaRepository<UserOutboxPurge, Integer> {
+
+    @Query("SELECT p.purgedThrough FROM UserOutboxPurge p WHERE p.id = 1")
+    long findPurgedThrough();
+
+    // Only ever moves forward
+    @Modifying
+    @Query("UPDATE UserOutboxPurge p SET p.purgedThrough = :xid WHERE p.id = 1 AND p.purgedThrough < :xid")
+    int raisePurgedThrough(@Param("xid") Long xid);
+}
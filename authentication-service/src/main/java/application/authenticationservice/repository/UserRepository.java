@@ -1,10 +1,15 @@
 package application.authenticationservice.repository;
 
 
+import application.authenticationservice.dto.UserSummary;
 import application.authenticationservice.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +20,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
     List<User> findAll();
-}
\ No newline at end of file
+
+    // Projections select only the public columns, never the password hash or 2FA secret
+
+    @Query("SELECT new application.authenticationservice.dto.UserSummary(" +
+            "u.id, u.email, u.firstName, u.lastName, u.role, u.profilePictureUrl, u.twoFaEnabled) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new application.authenticationservice.dto.UserSummary(" +
+            "u.id, u.email, u.firstName, u.lastName, u.role, u.profilePictureUrl, u.twoFaEnabled) " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new application.authenticationservice.dto.UserSummary(" +
+            "u.id, u.email, u.firstName, u.lastName, u.role, u.profilePictureUrl, u.twoFaEnabled) " +
+            "FROM User u ORDER BY u.id")
+    List<UserSummary> findAllSummaries();
+}
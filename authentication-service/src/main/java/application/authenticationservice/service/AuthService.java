@@ -5,8 +5,11 @@ import application.authenticationservice.dto.AuthResponse;
 import application.authenticationservice.dto.LoginRequest;
 import application.authenticationservice.dto.RegisterRequest;
 import application.authenticationservice.dto.TwoFASetupResponse;
+import application.authenticationservice.dto.UserPage;
+import application.authenticationservice.dto.UserSummary;
 import application.authenticationservice.entity.User;
 import application.authenticationservice.exceptions.AdminNotFoundException;
+import application.authenticationservice.exceptions.InvalidRefreshTokenException;
 import application.authenticationservice.exceptions.UnauthorizedException;
 import application.authenticationservice.repository.UserRepository;
 import application.authenticationservice.util.JwtHandler;
@@ -16,16 +19,11 @@ import com.warrenstrange.googleauth.GoogleAuthenticatorQRGenerator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -34,18 +32,28 @@ import java.util.Map;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final UserOutboxService userOutboxService;
     private final GoogleAuthenticator googleAuthenticator;
-    private final RestTemplate restTemplate;
+    private final GoogleProfileClient googleProfileClient;
+    private final GoogleAccountService googleAccountService;
     private final JwtHandler jwtHandler;
 
     @Value("${jwt.expiration:86400000}")
     private Long jwtExpiration;
 
+    @Value("${auth.users.batch-max-size:1000}")
+    private int batchMaxSize;
+
+    @Value("${auth.users.page-max-size:1000}")
+    private int pageMaxSize;
+
     @Transactional
     public AuthResponse register(RegisterRequest request, Long adminId) {
 
-        User admin = userRepository.findById(adminId)
+        User admin = userCache.findById(adminId)
                 .orElseThrow(() -> new AdminNotFoundException("Admin not found"));
 
         if (request.getRole() == null) {
@@ -62,7 +70,7 @@ public class AuthService {
 
         User user = new User();
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setRole(request.getRole());
@@ -70,6 +78,8 @@ public class AuthService {
         user.setTwoFaEnabled(false);
 
         User savedUser = userRepository.save(user);
+        userCache.evict(savedUser);
+        userOutboxService.publish(savedUser.getId());
 
         return new AuthResponse(
                 savedUser.getId(),
@@ -85,15 +95,15 @@ public class AuthService {
     }
 
 
-    @Transactional(readOnly = true)
+    // Not transactional: no database connection is held while waiting for the hashing pool
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = userCache.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
         if (!user.getEnabled()) {
             throw new RuntimeException("Account is disabled");
         }
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
@@ -141,6 +151,7 @@ public class AuthService {
 
         response.setAccessToken(accessToken);
         response.setExpiresIn(jwtExpiration);
+        attachRefreshToken(response, refreshTokenService.issue(user.getId()));
 
         return response;
     }
@@ -158,6 +169,7 @@ public class AuthService {
         user.setTwoFaSecret(secret);
         user.setTwoFaEnabled(false); // Will be enabled after verification
         userRepository.save(user);
+        userCache.evict(user);
 
         // Generate QR code URL
         String qrCodeUrl = GoogleAuthenticatorQRGenerator.getOtpAuthURL(
@@ -195,6 +207,7 @@ public class AuthService {
         // Enable 2FA after successful verification
         user.setTwoFaEnabled(true);
         userRepository.save(user);
+        userCache.evict(user);
 
         // ✅ Generate JWT using your JwtHandler
         String token = jwtHandler.generateToken(
@@ -218,6 +231,7 @@ public class AuthService {
 
         response.setAccessToken(token);
         response.setExpiresIn(jwtExpiration);
+        attachRefreshToken(response, refreshTokenService.issue(user.getId()));
 
         return response;
     }
@@ -231,6 +245,7 @@ public class AuthService {
         user.setTwoFaEnabled(false);
         user.setTwoFaSecret(null);
         userRepository.save(user);
+        userCache.evict(user);
 
         return new AuthResponse(
                 user.getId(),
@@ -245,103 +260,46 @@ public class AuthService {
         );
     }
 
-    @Transactional
+    // Not transactional: Google is called first, then the user is updated in a short transaction of its own
     public AuthResponse fetchGoogleProfile(Long userId, String accessToken) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+        Map<String, Object> profileData;
         try {
             // Call Google API to get user profile info
-            String googleApiUrl = "https://www.googleapis.com/oauth2/v2/userinfo";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    googleApiUrl,
-                    HttpMethod.GET,
-                    entity,
-                    Map.class
-            );
-
-            Map<String, Object> profileData = response.getBody();
-
-            if (profileData != null) {
-                String pictureUrl = (String) profileData.get("picture");
-                user.setProfilePictureUrl(pictureUrl);
-                userRepository.save(user);
-            }
-
-            return new AuthResponse(
-                    user.getId(),
-                    user.getEmail(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getRole().name(),
-                    user.getProfilePictureUrl(),
-                    user.getTwoFaEnabled(),
-                    false,
-                    "Profile picture fetched successfully"
-            );
-
+            profileData = googleProfileClient.fetchProfile(accessToken);
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch Google profile: " + e.getMessage());
         }
+
+        User user = googleAccountService.updatePicture(userId, profileData);
+
+        return new AuthResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole().name(),
+                user.getProfilePictureUrl(),
+                user.getTwoFaEnabled(),
+                false,
+                "Profile picture fetched successfully"
+        );
     }
 
-    @Transactional
+    // Not transactional, so no connection is held while Google answers; the account and
+    // refresh token writes each run in their own transaction
     public AuthResponse loginWithGoogle(String accessToken) {
         try {
             // 1️⃣ Get user info from Google
-            String googleApiUrl = "https://www.googleapis.com/oauth2/v2/userinfo";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setBearerAuth(accessToken);
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    googleApiUrl,
-                    HttpMethod.GET,
-                    entity,
-                    Map.class
-            );
-
-            Map<String, Object> profileData = response.getBody();
+            Map<String, Object> profileData = googleProfileClient.fetchProfile(accessToken);
 
             if (profileData == null) {
                 throw new RuntimeException("Failed to fetch Google profile");
             }
 
-            String email = (String) profileData.get("email");
-            String firstName = (String) profileData.get("given_name");
-            String lastName = (String) profileData.get("family_name");
-            String picture = (String) profileData.get("picture");
-            String googleId = (String) profileData.get("id");
-
-            // 2️⃣ Check if user already exists
-            User user = userRepository.findByEmail(email)
-                    .orElseGet(() -> {
-                        // 3️⃣ If not, create a new user automatically
-                        User newUser = new User();
-                        newUser.setEmail(email);
-                        newUser.setFirstName(firstName);
-                        newUser.setLastName(lastName);
-                        newUser.setProfilePictureUrl(picture);
-                        newUser.setGoogleId(googleId);
-                        newUser.setRole(Role.STAFF); // Default role
-                        newUser.setEnabled(true);
-                        return userRepository.save(newUser);
-                    });
-
-            // 4️⃣ Update avatar if changed
-            if (picture != null && !picture.equals(user.getProfilePictureUrl())) {
-                user.setProfilePictureUrl(picture);
-                user.setGoogleId(googleId);
-                userRepository.save(user);
-            }
+            // 2️⃣ Find or create the user (with its outbox event) and update the avatar, in one transaction
+            User user = googleAccountService.findOrCreate(profileData);
 
-            // 5️⃣ Generate JWT token
+            // 3️⃣ Generate JWT token
             String jwt = jwtHandler.generateToken(
                     user.getId().toString(),
                     user.getEmail(),
@@ -362,6 +320,7 @@ public class AuthService {
 
             authResponse.setAccessToken(jwt);
             authResponse.setExpiresIn(jwtExpiration);
+            attachRefreshToken(authResponse, refreshTokenService.issue(user.getId()));
 
             return authResponse;
 
@@ -371,14 +330,86 @@ public class AuthService {
     }
 
 
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token.
+     * No password or 2FA check: holding a live, unused refresh token is the proof.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        User user = userCache.findById(rotation.getUserId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("User not found"));
+        if (!user.getEnabled()) {
+            throw new InvalidRefreshTokenException("Account is disabled");
+        }
+
+        String accessToken = jwtHandler.generateToken(
+                user.getId().toString(),
+                user.getEmail(),
+                user.getRole().name()
+        );
+
+        AuthResponse response = new AuthResponse(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole().name(),
+                user.getProfilePictureUrl(),
+                user.getTwoFaEnabled(),
+                false,
+                "Token refreshed successfully"
+        );
+
+        response.setAccessToken(accessToken);
+        response.setExpiresIn(jwtExpiration);
+        attachRefreshToken(response, rotation.getRefreshToken());
+
+        return response;
+    }
+
+    private void attachRefreshToken(AuthResponse response, String refreshToken) {
+        response.setRefreshToken(refreshToken);
+        response.setRefreshExpiresIn(refreshTokenService.getRefreshExpiration());
+    }
+
     @Transactional(readOnly = true)
     public User getUserById(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    /**
+     * Resolve many users in one query; ids that do not exist are simply absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUsersByIds(Collection<Long> userIds) {
+        if (userIds.size() > batchMaxSize) {
+            throw new RuntimeException("At most " + batchMaxSize + " user ids can be requested at once");
+        }
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        return userRepository.findSummariesByIdIn(userIds);
+    }
+
+    /**
+     * Keyset pagination: users with an id greater than afterId, in id order.
+     * Each page is an index range scan on the primary key, however deep the caller is.
+     */
+    @Transactional(readOnly = true)
+    public UserPage listUsers(Long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), pageMaxSize);
+        List<UserSummary> users = userRepository.findSummariesAfter(
+                afterId != null ? afterId : 0L, PageRequest.of(0, pageSize));
+
+        Long nextAfterId = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return new UserPage(users, nextAfterId);
+    }
+
     @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public List<UserSummary> getAllUsers() {
+        return userRepository.findAllSummaries();
     }
 }
\ No newline at end of file
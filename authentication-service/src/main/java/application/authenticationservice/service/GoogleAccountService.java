@@ -0,0 +1,77 @@
+package application.authenticationservice.service;
+
+import application.authenticationservice.Enum.Role;
+import application.authenticationservice.entity.User;
+import application.authenticationservice.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * The local account behind a Google sign-in or profile fetch. Kept apart from
+ * AuthService so the account writes run in one short transaction, with the outbox
+ * event of a new account, while the call to Google that precedes them does not
+ * hold one open.
+ */
+@Service
+@RequiredArgsConstructor
+public class GoogleAccountService {
+
+    private final UserRepository userRepository;
+    private final UserOutboxService userOutboxService;
+    private final UserCache userCache;
+
+    /**
+     * The user with the profile's email, created as STAFF on first sign-in, with the
+     * avatar brought up to date.
+     */
+    @Transactional
+    public User findOrCreate(Map<String, Object> profileData) {
+        String email = (String) profileData.get("email");
+        String picture = (String) profileData.get("picture");
+        String googleId = (String) profileData.get("id");
+
+        User user = userRepository.findByEmail(email)
+                .orElseGet(() -> {
+                    User newUser = new User();
+                    newUser.setEmail(email);
+                    newUser.setFirstName((String) profileData.get("given_name"));
+                    newUser.setLastName((String) profileData.get("family_name"));
+                    newUser.setProfilePictureUrl(picture);
+                    newUser.setGoogleId(googleId);
+                    newUser.setRole(Role.STAFF); // Default role
+                    newUser.setEnabled(true);
+                    User created = userRepository.save(newUser);
+                    userOutboxService.publish(created.getId());
+                    return created;
+                });
+
+        if (picture != null && !picture.equals(user.getProfilePictureUrl())) {
+            user.setProfilePictureUrl(picture);
+            user.setGoogleId(googleId);
+            userRepository.save(user);
+        }
+        userCache.evict(user);
+
+        return user;
+    }
+
+    /**
+     * Stores the picture from a Google profile fetched beforehand; a null profile leaves
+     * the user as it is.
+     */
+    @Transactional
+    public User updatePicture(Long userId, Map<String, Object> profileData) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (profileData != null) {
+            user.setProfilePictureUrl((String) profileData.get("picture"));
+            userRepository.save(user);
+            userCache.evict(user);
+        }
+        return user;
+    }
+}
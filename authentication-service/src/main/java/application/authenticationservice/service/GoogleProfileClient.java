@@ -0,0 +1,85 @@
+package application.authenticationservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Resolves a Google access token to the user's profile via the userinfo endpoint.
+ * Profiles are cached briefly, keyed by the SHA-256 of the token so raw tokens
+ * are never retained, and repeated logins with the same token skip the call.
+ * Failed lookups are not cached.
+ */
+@Component
+public class GoogleProfileClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> PROFILE_TYPE =
+            new ParameterizedTypeReference<>() { };
+
+    private final RestTemplate restTemplate;
+    private final String userInfoUrl;
+    private final Cache<String, Map<String, Object>> cache;
+
+    public GoogleProfileClient(RestTemplate restTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.google.userinfo-url:https://www.googleapis.com/oauth2/v2/userinfo}") String userInfoUrl,
+                               @Value("${auth.google.profile-cache.max-size:10000}") long maxSize,
+                               @Value("${auth.google.profile-cache.ttl:PT2M}") Duration ttl) {
+        this.restTemplate = restTemplate;
+        this.userInfoUrl = userInfoUrl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "googleProfiles");
+    }
+
+    /**
+     * Returns the profile attributes (email, given_name, family_name, picture, id),
+     * or null if Google answered without a body.
+     */
+    public Map<String, Object> fetchProfile(String accessToken) {
+        return cache.get(digest(accessToken), key -> callUserInfo(accessToken));
+    }
+
+    private Map<String, Object> callUserInfo(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(accessToken);
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                userInfoUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                PROFILE_TYPE
+        );
+        return response.getBody();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package application.authenticationservice.service;
+
+import application.authenticationservice.entity.RefreshToken;
+import application.authenticationservice.exceptions.InvalidRefreshTokenException;
+import application.authenticationservice.repository.RefreshTokenRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues opaque refresh tokens and rotates them on every use.
+ * Tokens are 256 random bits, so a plain SHA-256 is enough to store them;
+ * no BCrypt work is needed to check one. Presenting a token that was
+ * already rotated means it leaked, so its whole family is revoked and the
+ * owner has to log in again. Expired tokens, and revoked ones whose family
+ * has no live token left, are purged daily.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Getter
+    @Value("${jwt.refresh-expiration:604800000}")
+    private Long refreshExpiration;
+
+    /**
+     * Start a new token family for a fresh login and return the raw token.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new one in the same family.
+     * The revocation on reuse must survive the exception, hence noRollbackFor.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (current.getRevoked()) {
+            throw reuseDetected(current);
+        }
+        // Checked before markUsed so an expired token is not consumed
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        if (refreshTokenRepository.markUsed(current.getId()) == 0) {
+            throw reuseDetected(current);
+        }
+
+        return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+    }
+
+    @Scheduled(cron = "${auth.refresh-token.purge-cron:0 45 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredOrRevoked(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired or revoked refresh token(s)", deleted);
+        }
+    }
+
+    private InvalidRefreshTokenException reuseDetected(RefreshToken current) {
+        int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+        log.warn("Refresh token reuse for user {}; revoked {} token(s) in family {}",
+                current.getUserId(), revoked, current.getFamilyId());
+        return new InvalidRefreshTokenException("Refresh token has already been used");
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(rawToken));
+        token.setFamilyId(familyId);
+        token.setUserId(userId);
+        token.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000));
+        token.setRevoked(false);
+        refreshTokenRepository.save(token);
+
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rotation {
+        private final Long userId;
+        private final String refreshToken;
+    }
+}
@@ -0,0 +1,93 @@
+package application.authenticationservice.service;
+
+import application.authenticationservice.entity.User;
+import application.authenticationservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory copy of user records for the read paths (login and
+ * lookups by id), keyed by id and by email. Unknown users are not cached.
+ * Code that changes a user reads it from the repository, not from here,
+ * and calls {@link #evict(User)} so the next read goes back to the database.
+ * The TTL only bounds staleness from changes made outside this service.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> byId;
+    private final Cache<String, User> byEmail;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${auth.user-cache.max-size:10000}") long maxSize,
+                     @Value("${auth.user-cache.ttl:PT10M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "usersById");
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "usersByEmail");
+    }
+
+    /**
+     * The returned instance is shared with other readers and must not be modified.
+     */
+    public Optional<User> findById(Long userId) {
+        return Optional.ofNullable(byId.get(userId, id -> userRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * The returned instance is shared with other readers and must not be modified.
+     */
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(byEmail.get(email, key -> userRepository.findByEmail(key).orElse(null)));
+    }
+
+    /**
+     * Drop the user from both caches now and, when called inside a transaction,
+     * again once it completes, so a read racing the write cannot put the
+     * pre-commit row back.
+     */
+    public void evict(User user) {
+        evictNow(user.getId(), user.getEmail());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long userId = user.getId();
+            String email = user.getEmail();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(userId, email);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId, String email) {
+        if (userId != null) {
+            byId.invalidate(userId);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+}
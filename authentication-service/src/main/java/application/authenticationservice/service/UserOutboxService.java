@@ -0,0 +1,93 @@
+package application.authenticationservice.service;
+
+import application.authenticationservice.dto.UserChangePage;
+import application.authenticationservice.entity.UserChangeEvent;
+import application.authenticationservice.repository.UserChangeEventRepository;
+import application.authenticationservice.repository.UserOutboxPurgeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox of user changes that other services replicate
+ * (leave-management-service keeps a local user directory from it).
+ * Events are written in the same transaction as the user row, and the id of
+ * that transaction is the cursor. Readers only see events of transactions
+ * older than every one still running, so an event that commits late cannot
+ * land behind a consumer's cursor. Purging records the highest transaction id
+ * it removed, and a consumer whose cursor is below that is told to resync.
+ */
+@Service
+@Slf4j
+public class UserOutboxService {
+
+    private final UserChangeEventRepository eventRepository;
+    private final UserOutboxPurgeRepository purgeRepository;
+    private final Duration retention;
+    private final int pageMaxSize;
+
+    public UserOutboxService(UserChangeEventRepository eventRepository,
+                             UserOutboxPurgeRepository purgeRepository,
+                             @Value("${auth.user-outbox.retention:P7D}") Duration retention,
+                             @Value("${auth.user-outbox.page-max-size:1000}") int pageMaxSize) {
+        this.eventRepository = eventRepository;
+        this.purgeRepository = purgeRepository;
+        this.retention = retention;
+        this.pageMaxSize = pageMaxSize;
+    }
+
+    @Transactional
+    public void publish(Long userId) {
+        UserChangeEvent event = new UserChangeEvent();
+        event.setUserId(userId);
+        eventRepository.save(event);
+    }
+
+    @Transactional(readOnly = true)
+    public UserChangePage readChanges(long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, pageMaxSize));
+        List<UserChangeEvent> events = eventRepository.findCommittedAfter(after, pageSize);
+
+        // Read after the events: a purge committing in between is then seen here
+        boolean resyncRequired = after < purgeRepository.findPurgedThrough();
+
+        List<Long> userIds = events.stream()
+                .map(UserChangeEvent::getUserId)
+                .distinct()
+                .toList();
+        long nextCursor = events.isEmpty() ? after : events.get(events.size() - 1).getXid();
+
+        return new UserChangePage(userIds, nextCursor, resyncRequired);
+    }
+
+    /**
+     * Cursor past every finished transaction; a consumer that just copied every
+     * user starts reading changes from here. Never below the purge watermark,
+     * so that cursor does not itself call for another resync.
+     */
+    @Transactional(readOnly = true)
+    public long latestCursor() {
+        return Math.max(eventRepository.findCommittedThrough(), purgeRepository.findPurgedThrough());
+    }
+
+    @Scheduled(cron = "${auth.user-outbox.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        Long purgeThrough = eventRepository.findLatestXidCreatedBefore(LocalDateTime.now().minus(retention));
+        if (purgeThrough == null) {
+            return;
+        }
+        purgeRepository.raisePurgedThrough(purgeThrough);
+        int deleted = eventRepository.deleteThrough(purgeThrough);
+        if (deleted > 0) {
+            log.info("Purged {} user outbox event(s) up to transaction {}, older than {}",
+                    deleted, purgeThrough, retention);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+-- Schema as previously created by hibernate.ddl-auto=update. IF NOT EXISTS lets
+-- databases that were created that way adopt the migrations unchanged.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email                   VARCHAR(255) NOT NULL,
+    password                VARCHAR(255) NOT NULL,
+    first_name              VARCHAR(255) NOT NULL,
+    last_name               VARCHAR(255) NOT NULL,
+    role                    VARCHAR(255) NOT NULL,
+    enabled                 BOOLEAN      NOT NULL,
+    two_fa_enabled          BOOLEAN,
+    two_fa_secret           VARCHAR(255),
+    profile_picture_url     VARCHAR(255),
+    google_id               VARCHAR(255),
+    created_at              TIMESTAMP(6),
+    updated_at              TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_hash      VARCHAR(64)  NOT NULL,
+    family_id       VARCHAR(36)  NOT NULL,
+    user_id         BIGINT       NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    revoked         BOOLEAN      NOT NULL,
+    created_at      TIMESTAMP(6),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash)
+);
+
+CREATE TABLE IF NOT EXISTS user_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_outbox_created_at ON user_outbox (created_at);
@@ -0,0 +1,16 @@
+-- Highest user_outbox id purged so far (UserOutboxService.purgeExpired). A consumer whose
+-- cursor is below it has missed events and must resync. The ids left in user_outbox cannot
+-- tell: IDENTITY values have gaps, and after a purge the table may be empty.
+CREATE TABLE IF NOT EXISTS user_outbox_purge (
+    id              INTEGER PRIMARY KEY,
+    purged_through  BIGINT  NOT NULL
+);
+
+-- Purges before this migration left no record: assume everything below the oldest
+-- remaining event was purged, or everything ever issued if none remains
+INSERT INTO user_outbox_purge (id, purged_through)
+SELECT 1, COALESCE(
+        (SELECT MIN(id) - 1 FROM user_outbox),
+        pg_sequence_last_value(pg_get_serial_sequence('user_outbox', 'id')),
+        0)
+WHERE NOT EXISTS (SELECT 1 FROM user_outbox_purge);
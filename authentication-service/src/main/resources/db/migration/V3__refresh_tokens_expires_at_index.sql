@@ -0,0 +1,2 @@
+-- RefreshTokenService.purgeExpired deletes by expiry every night
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,14 @@
+-- Id of the transaction that wrote each event, which is now the consumers' cursor.
+-- UserOutboxService only serves events whose transaction id is below the oldest one
+-- still running (pg_snapshot_xmin), so an event can never commit behind a cursor.
+ALTER TABLE user_outbox ADD COLUMN IF NOT EXISTS xid BIGINT;
+UPDATE user_outbox SET xid = pg_current_xact_id()::text::bigint WHERE xid IS NULL;
+ALTER TABLE user_outbox ALTER COLUMN xid SET DEFAULT (pg_current_xact_id()::text::bigint);
+ALTER TABLE user_outbox ALTER COLUMN xid SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_user_outbox_xid ON user_outbox (xid);
+
+-- The purge watermark moves to transaction ids too. Raising it to this transaction's id
+-- sends every consumer still holding an outbox id as its cursor to resync once.
+UPDATE user_outbox_purge
+SET purged_through = GREATEST(purged_through, pg_current_xact_id()::text::bigint);
@@ -0,0 +1,81 @@
+package application.authenticationservice;
+
+import application.authenticationservice.config.SecurityConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Which actuator endpoints SecurityConfig leaves open, with the actuator
+ * auto-configuration but without a database.
+ */
+@SpringBootTest(
+        classes = ActuatorSecurityTests.App.class,
+        properties = {
+                "server.port=0",
+                "eureka.client.enabled=false"
+        })
+@AutoConfigureMockMvc
+class ActuatorSecurityTests {
+
+    @Configuration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            FlywayAutoConfiguration.class
+    })
+    @Import(SecurityConfig.class)
+    static class App {
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void actuatorUser(DynamicPropertyRegistry registry) {
+        registry.add("auth.actuator.password-hash", () -> new BCryptPasswordEncoder().encode("scrape-secret"));
+    }
+
+    @Test
+    void healthIsOpen() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsNeedTheActuatorUser() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, basic("actuator", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, basic("actuator", "scrape-secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void actuatorUserDoesNotOpenTheRestOfTheApi() throws Exception {
+        mockMvc.perform(get("/users/1").header(HttpHeaders.AUTHORIZATION, basic("actuator", "scrape-secret")))
+                .andExpect(status().isForbidden());
+    }
+
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,133 @@
+package application.authenticationservice;
+
+import application.authenticationservice.config.HttpClientConfig;
+import application.authenticationservice.service.GoogleProfileClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * GoogleProfileClient against a local stand-in for the userinfo endpoint, through
+ * the pooled client from HttpClientConfig.
+ */
+@SpringBootTest(
+        classes = {HttpClientConfig.class, GoogleProfileClient.class, GoogleProfileClientTests.Beans.class},
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "auth.http-client.read-timeout=500ms")
+class GoogleProfileClientTests {
+
+    private static final MockWebServer google = new MockWebServer();
+
+    @Autowired
+    private GoogleProfileClient googleProfileClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        RestTemplateBuilder restTemplateBuilder() {
+            return new RestTemplateBuilder();
+        }
+    }
+
+    @DynamicPropertySource
+    static void userInfoUrl(DynamicPropertyRegistry registry) throws IOException {
+        google.start();
+        registry.add("auth.google.userinfo-url", () -> google.url("/oauth2/v2/userinfo").toString());
+    }
+
+    @AfterAll
+    static void stopGoogle() throws IOException {
+        google.shutdown();
+    }
+
+    @BeforeEach
+    void forgetEarlierRequests() throws InterruptedException {
+        while (google.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // drained
+        }
+    }
+
+    @Test
+    void repeatedTokenReachesGoogleOnce() throws InterruptedException {
+        google.enqueue(profile("ada@example.com"));
+        int before = google.getRequestCount();
+
+        Map<String, Object> first = googleProfileClient.fetchProfile("token-repeated");
+        Map<String, Object> second = googleProfileClient.fetchProfile("token-repeated");
+
+        assertThat(first).containsEntry("email", "ada@example.com");
+        assertThat(second).isEqualTo(first);
+        assertThat(google.getRequestCount() - before).isEqualTo(1);
+
+        RecordedRequest request = google.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request).isNotNull();
+        assertThat(request.getHeader("Authorization")).isEqualTo("Bearer token-repeated");
+    }
+
+    @Test
+    void slowGoogleTripsTheReadTimeout() {
+        google.enqueue(profile("slow@example.com").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        assertThatThrownBy(() -> googleProfileClient.fetchProfile("token-slow"))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasRootCauseInstanceOf(SocketTimeoutException.class);
+    }
+
+    @Test
+    void failedLookupIsNotCached() {
+        google.enqueue(new MockResponse().setResponseCode(503));
+        google.enqueue(profile("retry@example.com"));
+
+        assertThatThrownBy(() -> googleProfileClient.fetchProfile("token-retry"))
+                .isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(googleProfileClient.fetchProfile("token-retry")).containsEntry("email", "retry@example.com");
+    }
+
+    @Test
+    void cacheAndPoolMetricsAreRegistered() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "googleProfiles").meters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.size").tag("cache", "googleProfiles").gauge()).isNotNull();
+        assertThat(meterRegistry.find("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "outbound").gauge()).isNotNull();
+        assertThat(meterRegistry.find("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", "outbound").gauges()).isNotEmpty();
+    }
+
+    private static MockResponse profile(String email) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"id\":\"g-1\",\"email\":\"" + email + "\",\"given_name\":\"Ada\",\"family_name\":\"Lovelace\"}");
+    }
+}
@@ -0,0 +1,113 @@
+package application.authenticationservice;
+
+import application.authenticationservice.entity.RefreshToken;
+import application.authenticationservice.exceptions.InvalidRefreshTokenException;
+import application.authenticationservice.repository.RefreshTokenRepository;
+import application.authenticationservice.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTests {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokens;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokens = new RefreshTokenService(refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokens, "refreshExpiration", 604800000L);
+    }
+
+    @Test
+    void liveTokenIsRotatedWithinItsFamily() {
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.of(token(false, LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate("raw");
+
+        ArgumentCaptor<RefreshToken> issued = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(issued.capture());
+        assertThat(issued.getValue().getFamilyId()).isEqualTo("family-1");
+        assertThat(rotation.getUserId()).isEqualTo(7L);
+        assertThat(rotation.getRefreshToken()).isNotBlank();
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutBeingUsed() {
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.of(token(false, LocalDateTime.now().minusSeconds(1))));
+
+        assertThatThrownBy(() -> refreshTokens.rotate("raw"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("expired");
+        verify(refreshTokenRepository, never()).markUsed(anyLong());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    @Test
+    void rotatedTokenPresentedAgainRevokesTheFamily() {
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.of(token(true, LocalDateTime.now().plusDays(1))));
+
+        assertThatThrownBy(() -> refreshTokens.rotate("raw"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("already been used");
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void losingAConcurrentRotationRevokesTheFamily() {
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenReturn(Optional.of(token(false, LocalDateTime.now().plusDays(1))));
+        when(refreshTokenRepository.markUsed(1L)).thenReturn(0);
+
+        assertThatThrownBy(() -> refreshTokens.rotate("raw"))
+                .isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository).revokeFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void purgeDeletesAsOfNow() {
+        LocalDateTime before = LocalDateTime.now();
+
+        refreshTokens.purgeExpired();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(refreshTokenRepository).deleteExpiredOrRevoked(now.capture());
+        assertThat(now.getValue()).isBetween(before, LocalDateTime.now());
+    }
+
+    private static RefreshToken token(boolean revoked, LocalDateTime expiresAt) {
+        RefreshToken token = new RefreshToken();
+        token.setId(1L);
+        token.setTokenHash("hash");
+        token.setFamilyId("family-1");
+        token.setUserId(7L);
+        token.setExpiresAt(expiresAt);
+        token.setRevoked(revoked);
+        return token;
+    }
+}
@@ -0,0 +1,99 @@
+package application.authenticationservice;
+
+import application.authenticationservice.dto.UserChangePage;
+import application.authenticationservice.entity.UserChangeEvent;
+import application.authenticationservice.repository.UserChangeEventRepository;
+import application.authenticationservice.repository.UserOutboxPurgeRepository;
+import application.authenticationservice.service.UserOutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserOutboxServiceTests {
+
+    @Mock
+    private UserChangeEventRepository eventRepository;
+
+    @Mock
+    private UserOutboxPurgeRepository purgeRepository;
+
+    private UserOutboxService outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new UserOutboxService(eventRepository, purgeRepository, Duration.ofDays(7), 1000);
+    }
+
+    @Test
+    void gapAfterThePurgedIdsDoesNotForceAResync() {
+        // Transactions 11-14 wrote no events; 1-10 were purged and this consumer had read them
+        when(eventRepository.findCommittedAfter(eq(10L), anyInt())).thenReturn(List.of(event(2L, 15L, 3L)));
+        when(purgeRepository.findPurgedThrough()).thenReturn(10L);
+
+        UserChangePage page = outbox.readChanges(10L, 100);
+
+        assertThat(page.isResyncRequired()).isFalse();
+        assertThat(page.getUserIds()).containsExactly(3L);
+        assertThat(page.getNextCursor()).isEqualTo(15L);
+    }
+
+    @Test
+    void cursorBelowThePurgedIdsRequiresAResyncEvenWhenNothingIsLeft() {
+        when(eventRepository.findCommittedAfter(eq(5L), anyInt())).thenReturn(List.of());
+        when(purgeRepository.findPurgedThrough()).thenReturn(10L);
+
+        assertThat(outbox.readChanges(5L, 100).isResyncRequired()).isTrue();
+    }
+
+    @Test
+    void purgeRecordsTheHighestIdItRemoves() {
+        when(eventRepository.findLatestXidCreatedBefore(any(LocalDateTime.class))).thenReturn(42L);
+
+        outbox.purgeExpired();
+
+        InOrder order = inOrder(purgeRepository, eventRepository);
+        order.verify(purgeRepository).raisePurgedThrough(42L);
+        order.verify(eventRepository).deleteThrough(42L);
+    }
+
+    @Test
+    void purgeWithNothingExpiredLeavesTheWatermark() {
+        when(eventRepository.findLatestXidCreatedBefore(any(LocalDateTime.class))).thenReturn(null);
+
+        outbox.purgeExpired();
+
+        verify(purgeRepository, never()).raisePurgedThrough(anyLong());
+        verify(eventRepository, never()).deleteThrough(anyLong());
+    }
+
+    @Test
+    void latestCursorIsNeverBelowTheWatermark() {
+        // A consumer starting here must not be sent straight back to resync
+        when(eventRepository.findCommittedThrough()).thenReturn(8L);
+        when(purgeRepository.findPurgedThrough()).thenReturn(10L);
+
+        assertThat(outbox.latestCursor()).isEqualTo(10L);
+    }
+
+    private static UserChangeEvent event(Long id, Long xid, Long userId) {
+        return new UserChangeEvent(id, xid, userId, LocalDateTime.now().minusMinutes(1));
+    }
+}
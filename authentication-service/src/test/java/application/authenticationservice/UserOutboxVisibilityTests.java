@@ -0,0 +1,148 @@
+package application.authenticationservice;
+
+import application.authenticationservice.dto.UserChangePage;
+import application.authenticationservice.service.UserOutboxService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The outbox feed against a real Postgres, migrated by Flyway: transaction ids
+ * and snapshots decide what a reader sees, which H2 cannot stand in for.
+ * Writers are held open on their own connections to interleave commits.
+ * Postgres refuses to start as root, so run the build as a regular user.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(UserOutboxService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserOutboxVisibilityTests {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private UserOutboxService outbox;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void emptyOutbox() {
+        new JdbcTemplate(dataSource).update("DELETE FROM user_outbox");
+    }
+
+    @Test
+    void eventIsServedOnlyOnceEveryOlderTransactionHasFinished() throws SQLException {
+        long cursor = outbox.latestCursor();
+
+        try (Connection slow = dataSource.getConnection(); Connection fast = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            fast.setAutoCommit(false);
+            long slowXid = takeXid(slow);
+            publish(fast, 2L);      // lower outbox id, later transaction
+            fast.commit();
+
+            // The slow transaction could still commit an event; serving the fast one would move past it
+            UserChangePage whileSlowIsOpen = outbox.readChanges(cursor, 100);
+            assertThat(whileSlowIsOpen.getUserIds()).isEmpty();
+            assertThat(whileSlowIsOpen.getNextCursor()).isEqualTo(cursor);
+            assertThat(outbox.latestCursor()).isEqualTo(slowXid - 1);
+
+            publish(slow, 1L);
+            slow.commit();
+        }
+
+        UserChangePage page = outbox.readChanges(cursor, 100);
+        assertThat(page.getUserIds()).containsExactly(1L, 2L);
+        assertThat(page.isResyncRequired()).isFalse();
+        assertThat(outbox.readChanges(page.getNextCursor(), 100).getUserIds()).isEmpty();
+    }
+
+    @Test
+    void rolledBackEventsAreNeverServed() throws SQLException {
+        long cursor = outbox.latestCursor();
+
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            publish(writer, 1L);
+            writer.rollback();
+        }
+
+        assertThat(outbox.readChanges(cursor, 100).getUserIds()).isEmpty();
+    }
+
+    @Test
+    void pageNeverEndsHalfwayThroughATransaction() throws SQLException {
+        long cursor = outbox.latestCursor();
+
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            publish(writer, 1L);
+            publish(writer, 2L);
+            publish(writer, 3L);
+            writer.commit();
+        }
+        try (Connection writer = dataSource.getConnection()) {
+            publish(writer, 4L);
+        }
+
+        UserChangePage first = outbox.readChanges(cursor, 1);
+        assertThat(first.getUserIds()).containsExactly(1L, 2L, 3L);
+
+        UserChangePage second = outbox.readChanges(first.getNextCursor(), 1);
+        assertThat(second.getUserIds()).containsExactly(4L);
+    }
+
+    @Test
+    void cursorFromBeforeTheXidMigrationRequiresAResync() {
+        // Consumers that were reading by outbox id hold small cursors
+        assertThat(outbox.readChanges(0, 100).isResyncRequired()).isTrue();
+        assertThat(outbox.readChanges(outbox.latestCursor(), 100).isResyncRequired()).isFalse();
+    }
+
+    private static long takeXid(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet xid = statement.executeQuery("SELECT pg_current_xact_id()::text::bigint")) {
+            xid.next();
+            return xid.getLong(1);
+        }
+    }
+
+    private static void publish(Connection connection, long userId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO user_outbox (user_id, created_at) VALUES (" + userId + ", now())");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package application.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JWT benchmarks with the GC profiler, so each result also reports
+ * allocation per operation (gc.alloc.rate.norm).
+ * The benchmarks run on one thread, so the ops/s of legacyFilterSequence,
+ * parseOnce and cachedResolve is the number of requests one core can authenticate.
+ * <p>
+ * Usage: mvn package && java -jar target/benchmarks.jar [JMH options] [regexp]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(JwtBenchmarks.class.getSimpleName());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
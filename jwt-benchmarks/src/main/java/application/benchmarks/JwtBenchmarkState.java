@@ -0,0 +1,37 @@
+package application.benchmarks;
+
+import application.apigateway.util.JwtClaimsResolver;
+import application.apigateway.util.JwtValidator;
+import application.authenticationservice.util.JwtHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+
+/**
+ * The service components wired the way Spring wires them, sharing one secret,
+ * plus a token issued by the authentication service.
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmarkState {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    static final long EXPIRATION_MS = 3_600_000;
+
+    JwtHandler jwtHandler;
+    JwtValidator jwtValidator;
+    JwtClaimsResolver jwtClaimsResolver;
+    String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtHandler = new JwtHandler(SECRET, EXPIRATION_MS);
+        jwtValidator = new JwtValidator(SECRET);
+        jwtClaimsResolver = new JwtClaimsResolver(jwtValidator, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5));
+        token = jwtHandler.generateToken("42", "employee@example.com", "EMPLOYEE");
+        jwtClaimsResolver.resolve(token);
+    }
+}
@@ -0,0 +1,71 @@
+package application.benchmarks;
+
+import application.apigateway.util.JwtClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded throughput of each JWT path, i.e. operations per second per core.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmarks {
+
+    /**
+     * Login: JwtHandler signing a new token.
+     */
+    @Benchmark
+    public String generateToken(JwtBenchmarkState state) {
+        return state.jwtHandler.generateToken("42", "employee@example.com", "EMPLOYEE");
+    }
+
+    /**
+     * One signature check through the gateway's JwtValidator.
+     */
+    @Benchmark
+    public boolean validateToken(JwtBenchmarkState state) {
+        return state.jwtValidator.validateToken(state.token);
+    }
+
+    /**
+     * What JwtAuthenticationFilter used to do per request: validate, then parse
+     * the token again for each forwarded claim (five full parses).
+     */
+    @Benchmark
+    public void legacyFilterSequence(JwtBenchmarkState state, Blackhole blackhole) {
+        String token = state.token;
+        blackhole.consume(state.jwtValidator.validateToken(token));
+        blackhole.consume(state.jwtValidator.getEmailFromToken(token));
+        blackhole.consume(state.jwtValidator.getUserIdFromToken(token));
+        blackhole.consume(state.jwtValidator.getRoleFromToken(token));
+        blackhole.consume(state.jwtValidator.getPermissionsFromToken(token));
+    }
+
+    /**
+     * One verified parse returning every claim.
+     */
+    @Benchmark
+    public JwtClaims parseOnce(JwtBenchmarkState state) {
+        return state.jwtValidator.parseClaims(state.token);
+    }
+
+    /**
+     * What the filter does now for a token seen before: a digest and a claims-cache hit.
+     */
+    @Benchmark
+    public Optional<JwtClaims> cachedResolve(JwtBenchmarkState state) {
+        return state.jwtClaimsResolver.resolve(state.token);
+    }
+}
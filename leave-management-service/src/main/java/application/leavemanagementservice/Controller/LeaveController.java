@@ -5,6 +5,8 @@ import application.leavemanagementservice.Service.LeaveService;
 import application.leavemanagementservice.dto.LeaveActionDTO;
 import application.leavemanagementservice.dto.LeaveBalanceResponse;
 import application.leavemanagementservice.dto.LeaveRequestDTO;
+import application.leavemanagementservice.dto.LeaveRequestFilter;
+import application.leavemanagementservice.dto.LeaveRequestPage;
 import application.leavemanagementservice.dto.LeaveRequestResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -71,11 +73,12 @@ public class LeaveController {
     }
 
     @GetMapping("/my-requests")
-    public ResponseEntity<List<LeaveRequestResponse>> getMyLeaveRequests(
+    public ResponseEntity<LeaveRequestPage> getMyLeaveRequests(
             @RequestHeader("X-User-Id") Long userId,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            LeaveRequestFilter filter) {
 
-        List<LeaveRequestResponse> requests = leaveService.getMyLeaveRequests(userId, token);
+        LeaveRequestPage requests = leaveService.getMyLeaveRequests(userId, token, filter);
         return ResponseEntity.ok(requests);
     }
 
@@ -100,16 +103,12 @@ public class LeaveController {
 
 
     @GetMapping("/pending-approvals")
-    public ResponseEntity<?> getPendingApprovals(
+    public ResponseEntity<LeaveRequestPage> getPendingApprovals(
             @RequestHeader("X-User-Id") Long managerId,
-            @RequestHeader("Authorization") String token) {
-
-        List<LeaveRequestResponse> requests = leaveService.getPendingApprovals(managerId, token);
-
-        if (requests.isEmpty()) {
-            return ResponseEntity.ok("No pending approvals");
-        }
+            @RequestHeader("Authorization") String token,
+            LeaveRequestFilter filter) {
 
+        LeaveRequestPage requests = leaveService.getPendingApprovals(managerId, token, filter);
         return ResponseEntity.ok(requests);
     }
 
@@ -126,9 +125,10 @@ public class LeaveController {
         return ResponseEntity.ok(response);
     }
 
+    // Listings are keyset-paginated: pass the previous page's nextCursor as cursor
     @GetMapping()
-    public ResponseEntity<List<LeaveRequestResponse>> getAllLeaves() {
-        List<LeaveRequestResponse> leaves = leaveService.getAllLeaves();
+    public ResponseEntity<LeaveRequestPage> getAllLeaves(LeaveRequestFilter filter) {
+        LeaveRequestPage leaves = leaveService.getAllLeaves(filter);
         return ResponseEntity.ok(leaves);
     }
 
@@ -141,8 +141,8 @@ public class LeaveController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<LeaveRequestResponse>> getLeaveByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(leaveService.getLeavesByUser(userId));
+    public ResponseEntity<LeaveRequestPage> getLeaveByUserId(@PathVariable Long userId, LeaveRequestFilter filter) {
+        return ResponseEntity.ok(leaveService.getLeavesByUser(userId, filter));
     }
 
 
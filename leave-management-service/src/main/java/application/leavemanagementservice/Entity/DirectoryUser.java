@@ -0,0 +1,44 @@
+package application.leavemanagementservice.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only local copy of the UserDTO fields this service uses, kept in sync
+ * with authentication-service by UserDirectorySync. The id is the auth-service user id.
+ */
+@Entity
+@Table(name = "user_directory")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryUser {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String role;
+
+    private String department;
+
+    @Column(name = "manager_id")
+    private Long managerId;
+
+    @Column(name = "joining_date")
+    private LocalDate joiningDate;
+
+    @Column(name = "synced_at")
+    private LocalDateTime syncedAt;
+}
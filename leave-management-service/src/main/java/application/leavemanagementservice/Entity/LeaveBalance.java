@@ -58,6 +58,10 @@ public class LeaveBalance {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Used days only change through LeaveBalanceRepository's atomic updates, which bump this too
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -72,14 +76,4 @@ public class LeaveBalance {
         updatedAt = LocalDateTime.now();
         availableDays = totalDays - usedDays;
     }
-
-    public void deductDays(double days) {
-        this.usedDays += days;
-        this.availableDays = this.totalDays - this.usedDays;
-    }
-
-    public void addBackDays(double days) {
-        this.usedDays = Math.max(0, this.usedDays - days);
-        this.availableDays = this.totalDays - this.usedDays;
-    }
 }
\ No newline at end of file
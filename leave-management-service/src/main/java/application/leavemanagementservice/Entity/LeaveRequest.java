@@ -12,7 +12,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "leave_requests")
+@Table(name = "leave_requests") // indexes: db/migration/V2__query_indexes.sql
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,9 @@
+package application.leavemanagementservice.Repository;
+
+import application.leavemanagementservice.Entity.DirectoryUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DirectoryUserRepository extends JpaRepository<DirectoryUser, Long> {
+}
@@ -3,8 +3,12 @@ package application.leavemanagementservice.Repository;
 import application.leavemanagementservice.ENUM.LeaveType;
 import application.leavemanagementservice.Entity.LeaveBalance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +22,42 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
     List<LeaveBalance> findByUserId(Long userId);
     List<LeaveBalance> findByYear(Integer year);
 
+    // Balance changes are single conditional UPDATEs, so concurrent approvals and cancellations
+    // never lose each other's change; each bumps the version, so a stale entity save fails instead
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.usedDays = b.usedDays + :days, " +
+            "b.availableDays = b.totalDays - (b.usedDays + :days), " +
+            "b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.userId = :userId AND b.leaveType = :leaveType AND b.year = :year " +
+            "AND b.totalDays - b.usedDays >= :days")
+    int deductDays(@Param("userId") Long userId,
+                   @Param("leaveType") LeaveType leaveType,
+                   @Param("year") Integer year,
+                   @Param("days") Double days,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET " +
+            "b.usedDays = CASE WHEN b.usedDays > :days THEN b.usedDays - :days ELSE 0.0 END, " +
+            "b.availableDays = b.totalDays - CASE WHEN b.usedDays > :days THEN b.usedDays - :days ELSE 0.0 END, " +
+            "b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.userId = :userId AND b.leaveType = :leaveType AND b.year = :year")
+    int addBackDays(@Param("userId") Long userId,
+                    @Param("leaveType") LeaveType leaveType,
+                    @Param("year") Integer year,
+                    @Param("days") Double days,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveBalance b SET b.accruedDays = :accruedDays, b.carryoverDays = :carryoverDays, " +
+            "b.totalDays = :totalDays, b.availableDays = :totalDays - b.usedDays, " +
+            "b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.id = :id")
+    int updateAccrual(@Param("id") Long id,
+                      @Param("accruedDays") Double accruedDays,
+                      @Param("carryoverDays") Double carryoverDays,
+                      @Param("totalDays") Double totalDays,
+                      @Param("now") LocalDateTime now);
+
 }
@@ -3,15 +3,18 @@ package application.leavemanagementservice.Repository;
 import application.leavemanagementservice.ENUM.LeaveStatus;
 import application.leavemanagementservice.Entity.LeaveRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
+public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long>, JpaSpecificationExecutor<LeaveRequest> {
 
     List<LeaveRequest> findByUserId(Long userId);
 
@@ -21,12 +24,41 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
 
     List<LeaveRequest> findByStatus(LeaveStatus status);
 
-    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.userId = :userId " +
-            "AND lr.status IN (application.leavemanagementservice.ENUM.LeaveStatus.PENDING, application.leavemanagementservice.ENUM.LeaveStatus.APPROVED) " +
-            "AND ((lr.startDate BETWEEN :startDate AND :endDate) " +
-            "OR (lr.endDate BETWEEN :startDate AND :endDate) " +
-            "OR (lr.startDate <= :startDate AND lr.endDate >= :endDate))")
+    // Conditional so that of concurrent reviews or cancellations of one request exactly one applies
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveRequest lr SET lr.status = :status, lr.managerId = :managerId, " +
+            "lr.managerComments = :comments, lr.reviewedAt = :now, lr.updatedAt = :now " +
+            "WHERE lr.id = :id AND lr.status = application.leavemanagementservice.ENUM.LeaveStatus.PENDING")
+    int markReviewed(@Param("id") Long id,
+                     @Param("status") LeaveStatus status,
+                     @Param("managerId") Long managerId,
+                     @Param("comments") String comments,
+                     @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LeaveRequest lr SET lr.status = :to, lr.updatedAt = :now WHERE lr.id = :id AND lr.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") LeaveStatus from,
+                         @Param("to") LeaveStatus to,
+                         @Param("now") LocalDateTime now);
+
+    @Query("SELECT lr.status FROM LeaveRequest lr WHERE lr.id = :id")
+    LeaveStatus findStatusById(@Param("id") Long id);
+
+    // period is the generated daterange(start_date, end_date, '[]') column; && is served by its GiST indexes
+
+    @Query(value = "SELECT * FROM leave_requests WHERE user_id = :userId " +
+            "AND status IN ('PENDING', 'APPROVED') " +
+            "AND period && daterange(CAST(:startDate AS date), CAST(:endDate AS date), '[]')",
+            nativeQuery = true)
     List<LeaveRequest> findOverlappingLeaves(@Param("userId") Long userId,
                                              @Param("startDate") LocalDate startDate,
                                              @Param("endDate") LocalDate endDate);
+
+    @Query(value = "SELECT * FROM leave_requests WHERE status = 'APPROVED' " +
+            "AND period && daterange(CAST(:startDate AS date), CAST(:endDate AS date), '[]')",
+            nativeQuery = true)
+    List<LeaveRequest> findApprovedLeavesBetween(@Param("startDate") LocalDate startDate,
+                                                 @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
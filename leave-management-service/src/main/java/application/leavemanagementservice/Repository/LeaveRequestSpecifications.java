@@ -0,0 +1,146 @@
+package application.leavemanagementservice.Repository;
+
+import application.leavemanagementservice.ENUM.LeaveStatus;
+import application.leavemanagementservice.Entity.LeaveRequest;
+import application.leavemanagementservice.dto.LeaveRequestFilter;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Building blocks for the keyset-paginated leave listings.
+ * Pages are ordered by (created_at, id) descending; a cursor is the position
+ * of the last row returned, so the next page is a range scan on the
+ * matching (..., created_at, id) index however deep the client has paged.
+ * The approval queue is ordered by urgency instead, (start_date, id)
+ * ascending, with its own cursor.
+ */
+public final class LeaveRequestSpecifications {
+
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+    public static final Sort SOONEST_FIRST = Sort.by(Sort.Order.asc("startDate"), Sort.Order.asc("id"));
+
+    private LeaveRequestSpecifications() {
+    }
+
+    public static Specification<LeaveRequest> forUser(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("userId"), userId);
+    }
+
+    public static Specification<LeaveRequest> withStatus(LeaveStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    /**
+     * Requests routed to the manager, plus those routed to nobody: auth-service keeps no
+     * reporting line yet, so a request only carries a manager when the directory has one.
+     */
+    public static Specification<LeaveRequest> reviewableBy(Long managerId) {
+        return (root, query, cb) -> cb.or(
+                cb.equal(root.get("managerId"), managerId),
+                cb.isNull(root.get("managerId"))
+        );
+    }
+
+    /**
+     * Only the filters that are set become predicates, so each combination is its own plain query.
+     */
+    public static Specification<LeaveRequest> matching(LeaveRequestFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getLeaveType() != null) {
+                predicates.add(cb.equal(root.get("leaveType"), filter.getLeaveType()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("endDate"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("startDate"), filter.getTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Rows strictly after the cursor position in NEWEST_FIRST order; no restriction when cursor is null.
+     * The redundant created_at bound is what Postgres turns into an index condition: on the OR
+     * alone it combines two bitmap scans and sorts instead of reading the index in order.
+     */
+    public static Specification<LeaveRequest> after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Position<LocalDateTime> position = decode(cursor, LocalDateTime::parse);
+        return (root, query, cb) -> cb.and(
+                cb.lessThanOrEqualTo(root.get("createdAt"), position.key()),
+                cb.or(
+                        cb.lessThan(root.get("createdAt"), position.key()),
+                        cb.and(
+                                cb.equal(root.get("createdAt"), position.key()),
+                                cb.lessThan(root.get("id"), position.id())
+                        )
+                )
+        );
+    }
+
+    /**
+     * Rows strictly after the cursor position in SOONEST_FIRST order; no restriction when cursor is null.
+     * Bounded on start_date for the same reason as after().
+     */
+    public static Specification<LeaveRequest> startingAfter(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Position<LocalDate> position = decode(cursor, LocalDate::parse);
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("startDate"), position.key()),
+                cb.or(
+                        cb.greaterThan(root.get("startDate"), position.key()),
+                        cb.and(
+                                cb.equal(root.get("startDate"), position.key()),
+                                cb.greaterThan(root.get("id"), position.id())
+                        )
+                )
+        );
+    }
+
+    public static String cursorOf(LeaveRequest last) {
+        return encode(last.getCreatedAt(), last.getId());
+    }
+
+    public static String startCursorOf(LeaveRequest last) {
+        return encode(last.getStartDate(), last.getId());
+    }
+
+    private static String encode(Object key, Long id) {
+        String position = key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static <K> Position<K> decode(String cursor, Function<String, K> keyParser) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            return new Position<>(
+                    keyParser.apply(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Position<K>(K key, Long id) {
+    }
+}
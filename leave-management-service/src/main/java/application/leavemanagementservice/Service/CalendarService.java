@@ -2,10 +2,8 @@ package application.leavemanagementservice.Service;
 
 import application.leavemanagementservice.Entity.LeaveRequest;
 import application.leavemanagementservice.Entity.PublicHoliday;
-import application.leavemanagementservice.ENUM.LeaveStatus;
 import application.leavemanagementservice.Repository.LeaveRequestRepository;
 import application.leavemanagementservice.Repository.PublicHolidayRepository;
-import application.leavemanagementservice.config.AuthServiceClient;
 import application.leavemanagementservice.dto.EmployeeOnLeaveDTO;
 import application.leavemanagementservice.dto.LeaveCalendarDTO;
 import application.leavemanagementservice.dto.PublicHolidayDTO;
@@ -25,20 +23,14 @@ public class CalendarService {
 
     private final LeaveRequestRepository leaveRequestRepository;
     private final PublicHolidayRepository publicHolidayRepository;
-    private final AuthServiceClient authServiceClient;
+    private final UserDirectoryService userDirectoryService;
 
     public List<LeaveCalendarDTO> getLeaveCalendar(Long userId, LocalDate startDate, LocalDate endDate) {
         log.info("Fetching leave calendar for user {} from {} to {}", userId, startDate, endDate);
 
-        List<LeaveRequest> leaves = leaveRequestRepository.findByUserId(userId).stream()
-                .filter(leave -> {
-                    return (leave.getStatus() == LeaveStatus.APPROVED || leave.getStatus() == LeaveStatus.PENDING) &&
-                            !leave.getEndDate().isBefore(startDate) &&
-                            !leave.getStartDate().isAfter(endDate);
-                })
-                .collect(Collectors.toList());
+        List<LeaveRequest> leaves = leaveRequestRepository.findOverlappingLeaves(userId, startDate, endDate);
 
-        UserDTO user = authServiceClient.getUserById(userId);
+        UserDTO user = userDirectoryService.getUser(userId);
 
         return leaves.stream()
                 .map(leave -> mapToCalendarDTO(leave, user))
@@ -48,17 +40,11 @@ public class CalendarService {
     public List<LeaveCalendarDTO> getTeamLeaveCalendar(LocalDate startDate, LocalDate endDate) {
         log.info("Fetching team leave calendar from {} to {}", startDate, endDate);
 
-        List<LeaveRequest> leaves = leaveRequestRepository.findAll().stream()
-                .filter(leave -> {
-                    return leave.getStatus() == LeaveStatus.APPROVED &&
-                            !leave.getEndDate().isBefore(startDate) &&
-                            !leave.getStartDate().isAfter(endDate);
-                })
-                .collect(Collectors.toList());
+        List<LeaveRequest> leaves = leaveRequestRepository.findApprovedLeavesBetween(startDate, endDate);
 
         return leaves.stream()
                 .map(leave -> {
-                    UserDTO user = authServiceClient.getUserById(leave.getUserId());
+                    UserDTO user = userDirectoryService.getUser(leave.getUserId());
                     return mapToCalendarDTO(leave, user);
                 })
                 .collect(Collectors.toList());
@@ -68,15 +54,11 @@ public class CalendarService {
         LocalDate today = LocalDate.now();
         log.info("Fetching employees on leave today: {}", today);
 
-        List<LeaveRequest> leavesToday = leaveRequestRepository.findAll().stream()
-                .filter(leave -> leave.getStatus() == LeaveStatus.APPROVED &&
-                        !leave.getStartDate().isAfter(today) &&
-                        !leave.getEndDate().isBefore(today))
-                .collect(Collectors.toList());
+        List<LeaveRequest> leavesToday = leaveRequestRepository.findApprovedLeavesBetween(today, today);
 
         return leavesToday.stream()
                 .map(leave -> {
-                    UserDTO user = authServiceClient.getUserById(leave.getUserId());
+                    UserDTO user = userDirectoryService.getUser(leave.getUserId());
                     EmployeeOnLeaveDTO dto = new EmployeeOnLeaveDTO();
                     dto.setUserId(user.getId());
                     dto.setEmployeeName(user.getFirstName() + " " + user.getLastName());
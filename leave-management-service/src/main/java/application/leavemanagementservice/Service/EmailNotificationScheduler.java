@@ -3,7 +3,6 @@ package application.leavemanagementservice.Service;
 import application.leavemanagementservice.Entity.LeaveRequest;
 import application.leavemanagementservice.ENUM.LeaveStatus;
 import application.leavemanagementservice.Repository.LeaveRequestRepository;
-import application.leavemanagementservice.config.AuthServiceClient;
 import application.leavemanagementservice.dto.UserDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,7 +19,7 @@ import java.util.List;
 public class EmailNotificationScheduler {
 
     private final LeaveRequestRepository leaveRequestRepository;
-    private final AuthServiceClient authServiceClient;
+    private final UserDirectoryService userDirectoryService;
     private final EmailService emailService;
 
     // Run every day at 9 AM
@@ -38,7 +37,7 @@ public class EmailNotificationScheduler {
 
         for (LeaveRequest leave : upcomingLeaves) {
             try {
-                UserDTO employee = authServiceClient.getUserById(leave.getUserId());
+                UserDTO employee = userDirectoryService.getUser(leave.getUserId());
                 emailService.sendUpcomingLeaveReminder(employee, leave, 3);
             } catch (Exception e) {
                 log.error("Failed to send reminder for leave request {}: {}", leave.getId(), e.getMessage());
@@ -1,12 +1,20 @@
 package application.leavemanagementservice.Service;
 
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Entity.LeaveBalance;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Objects;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class LeaveAccrualService {
 
@@ -15,13 +23,21 @@ public class LeaveAccrualService {
     private static final int CARRYOVER_EXPIRY_DAY = 31; // Jan 31
     private static final int CARRYOVER_EXPIRY_MONTH = 1; // January
 
+    private final LeaveBalanceRepository leaveBalanceRepository;
+
     /**
      * Calculate accrued leave days based on employment start date
      */
     public double calculateAccruedDays(LocalDate employmentStartDate, int year) {
+        return calculateAccruedDays(employmentStartDate, year, LocalDate.now());
+    }
+
+    /**
+     * Calculate accrued leave days as of the given day
+     */
+    public double calculateAccruedDays(LocalDate employmentStartDate, int year, LocalDate today) {
         LocalDate startOfYear = LocalDate.of(year, 1, 1);
         LocalDate endOfYear = LocalDate.of(year, 12, 31);
-        LocalDate today = LocalDate.now();
 
         // Determine the start date for accrual calculation
         LocalDate accrualStart = employmentStartDate.isAfter(startOfYear)
@@ -67,7 +83,11 @@ public class LeaveAccrualService {
      * Check if carryover has expired
      */
     public boolean hasCarryoverExpired(LocalDate expiryDate) {
-        return LocalDate.now().isAfter(expiryDate);
+        return hasCarryoverExpired(expiryDate, LocalDate.now());
+    }
+
+    public boolean hasCarryoverExpired(LocalDate expiryDate, LocalDate today) {
+        return today.isAfter(expiryDate);
     }
 
     /**
@@ -84,4 +104,60 @@ public class LeaveAccrualService {
 
         return totalAccrued - usedDays;
     }
+
+    /**
+     * The balance as of the given day, computed only from what the row stores: ANNUAL
+     * accrual from the employment start date, carryover dropped once expired. Returns a
+     * detached copy and writes nothing, so reads never have to. Other leave types do not
+     * accrue and are returned unchanged.
+     */
+    public LeaveBalance project(LeaveBalance stored, LocalDate today) {
+        if (stored.getLeaveType() != LeaveType.ANNUAL) {
+            return stored;
+        }
+
+        LocalDate employmentStart = stored.getEmploymentStartDate() != null
+                ? stored.getEmploymentStartDate()
+                : LocalDate.of(stored.getYear(), 1, 1);
+        double accruedDays = calculateAccruedDays(employmentStart, stored.getYear(), today);
+
+        double carryoverDays = stored.getCarryoverDays() != null ? stored.getCarryoverDays() : 0.0;
+        if (stored.getCarryoverExpiryDate() != null && hasCarryoverExpired(stored.getCarryoverExpiryDate(), today)) {
+            carryoverDays = 0.0;
+        }
+
+        LeaveBalance projected = new LeaveBalance();
+        projected.setId(stored.getId());
+        projected.setUserId(stored.getUserId());
+        projected.setLeaveType(stored.getLeaveType());
+        projected.setYear(stored.getYear());
+        projected.setUsedDays(stored.getUsedDays());
+        projected.setAccruedDays(accruedDays);
+        projected.setCarryoverDays(carryoverDays);
+        projected.setCarryoverExpiryDate(stored.getCarryoverExpiryDate());
+        projected.setEmploymentStartDate(stored.getEmploymentStartDate());
+        projected.setTotalDays(accruedDays + carryoverDays);
+        projected.setAvailableDays(accruedDays + carryoverDays - stored.getUsedDays());
+        projected.setCreatedAt(stored.getCreatedAt());
+        projected.setUpdatedAt(stored.getUpdatedAt());
+        projected.setVersion(stored.getVersion());
+        return projected;
+    }
+
+    /**
+     * Persist today's projection if the stored accrual is behind it, writing only the
+     * accrual columns so concurrent changes to used days are kept. Returns the projection.
+     */
+    @Transactional
+    public LeaveBalance refresh(LeaveBalance stored, LocalDate today) {
+        LeaveBalance projected = project(stored, today);
+        if (projected != stored
+                && (!Objects.equals(projected.getAccruedDays(), stored.getAccruedDays())
+                || !Objects.equals(projected.getCarryoverDays(), stored.getCarryoverDays())
+                || !Objects.equals(projected.getTotalDays(), stored.getTotalDays()))) {
+            leaveBalanceRepository.updateAccrual(stored.getId(), projected.getAccruedDays(),
+                    projected.getCarryoverDays(), projected.getTotalDays(), LocalDateTime.now());
+        }
+        return projected;
+    }
 }
@@ -4,17 +4,22 @@ import application.leavemanagementservice.Entity.LeaveBalance;
 import application.leavemanagementservice.Entity.LeaveRequest;
 import application.leavemanagementservice.Repository.LeaveBalanceRepository;
 import application.leavemanagementservice.Repository.LeaveRequestRepository;
+import application.leavemanagementservice.Repository.LeaveRequestSpecifications;
 import application.leavemanagementservice.ENUM.LeaveStatus;
 import application.leavemanagementservice.ENUM.LeaveType;
-import application.leavemanagementservice.config.AuthServiceClient;
 import application.leavemanagementservice.dto.LeaveActionDTO;
 import application.leavemanagementservice.dto.LeaveBalanceResponse;
 import application.leavemanagementservice.dto.LeaveRequestDTO;
+import application.leavemanagementservice.dto.LeaveRequestFilter;
+import application.leavemanagementservice.dto.LeaveRequestPage;
 import application.leavemanagementservice.dto.LeaveRequestResponse;
 import application.leavemanagementservice.dto.UserDTO;
 import application.leavemanagementservice.exceptions.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -23,8 +28,13 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,11 +44,16 @@ public class LeaveService {
 
     private final LeaveRequestRepository leaveRequestRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
-    private final AuthServiceClient authServiceClient;
+    private final UserDirectoryService userDirectoryService;
     private final EmailService emailService;
     private final CloudinaryService cloudinaryservice;
     private final LeaveAccrualService leaveAccrualService;
 
+    private static final int MAX_STATUS_ATTEMPTS = 3;
+
+    @Value("${leave.requests.page-max-size:200}")
+    private int pageMaxSize;
+
     @Transactional
     public LeaveRequestResponse createLeaveRequest(
             LeaveRequestDTO dto,
@@ -48,7 +63,7 @@ public class LeaveService {
     ) {
         log.info("Creating leave request for user: {}", userId);
 
-        UserDTO user = authServiceClient.getUserById(userId);
+        UserDTO user = userDirectoryService.getUser(userId);
 
         double numberOfDays = calculateWorkingDays(dto.getStartDate(), dto.getEndDate());
 
@@ -62,9 +77,11 @@ public class LeaveService {
         }
 
         int year = dto.getStartDate().getYear();
-        LeaveBalance balance = leaveBalanceRepository
+        LeaveBalance stored = leaveBalanceRepository
                 .findByUserIdAndLeaveTypeAndYear(userId, dto.getLeaveType(), year)
                 .orElseGet(() -> createDefaultBalance(userId, dto.getLeaveType(), year, user.getJoiningDate()));
+        // Check against today's accrual, and store it so the approval's deduction sees the same figure
+        LeaveBalance balance = leaveAccrualService.refresh(stored, LocalDate.now());
 
         if (balance.getAvailableDays() < numberOfDays) {
             throw new InsufficientLeaveBalanceException(
@@ -117,8 +134,8 @@ public class LeaveService {
         application.leavemanagementservice.Entity.LeaveRequest leaveRequest = leaveRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found"));
 
-        // Get manager details and verify they have MANAGER or HR_ADMIN role
-        UserDTO manager = authServiceClient.getUserById(managerId);
+        // Get manager details and verify they have MANAGER or ADMIN role
+        UserDTO manager = userDirectoryService.getUser(managerId);
         if (!"MANAGER".equals(manager.getRole()) && !"ADMIN".equals(manager.getRole())) {
             throw new UnauthorizedException("Only managers or HR admins can review leave requests");
         }
@@ -127,40 +144,34 @@ public class LeaveService {
             throw new IllegalStateException("Leave request has already been reviewed");
         }
 
-        // Get employee details
-        UserDTO employee = authServiceClient.getUserById(leaveRequest.getUserId());
-
-        // Update leave request status
+        LeaveStatus decision;
         if ("APPROVE".equalsIgnoreCase(action.getAction())) {
-            leaveRequest.setStatus(LeaveStatus.APPROVED);
-
-            // Deduct from balance
-            int year = leaveRequest.getStartDate().getYear();
-            application.leavemanagementservice.Entity.LeaveBalance balance = leaveBalanceRepository
-                    .findByUserIdAndLeaveTypeAndYear(leaveRequest.getUserId(),
-                            leaveRequest.getLeaveType(), year)
-                    .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
-
-            balance.deductDays(leaveRequest.getNumberOfDays());
-            leaveBalanceRepository.save(balance);
-
-            emailService.sendLeaveApprovalEmail(employee, leaveRequest, manager);
-
+            decision = LeaveStatus.APPROVED;
         } else if ("REJECT".equalsIgnoreCase(action.getAction())) {
-            leaveRequest.setStatus(LeaveStatus.REJECTED);
-
-            emailService.sendLeaveApprovalEmail(employee, leaveRequest, manager);
-
+            decision = LeaveStatus.REJECTED;
         } else {
             throw new IllegalArgumentException("Invalid action. Must be APPROVE or REJECT");
         }
 
-        // Set the manager who approved/rejected
+        // Get employee details
+        UserDTO employee = userDirectoryService.getUser(leaveRequest.getUserId());
+
+        // Only one of several concurrent reviews of the request gets past this
+        LocalDateTime now = LocalDateTime.now();
+        if (leaveRequestRepository.markReviewed(requestId, decision, managerId, action.getComments(), now) == 0) {
+            throw new IllegalStateException("Leave request has already been reviewed");
+        }
+        leaveRequest.setStatus(decision);
         leaveRequest.setManagerId(managerId);
         leaveRequest.setManagerComments(action.getComments());
-        leaveRequest.setReviewedAt(LocalDateTime.now());
+        leaveRequest.setReviewedAt(now);
 
-        leaveRequest = leaveRequestRepository.save(leaveRequest);
+        if (decision == LeaveStatus.APPROVED) {
+            // Deduct from balance; throwing rolls the review back with it
+            deductFromBalance(leaveRequest);
+        }
+
+        emailService.sendLeaveApprovalEmail(employee, leaveRequest, manager);
 
         log.info("Leave request {} has been {} by manager {}", requestId, leaveRequest.getStatus(), managerId);
 
@@ -178,141 +189,137 @@ public class LeaveService {
             throw new UnauthorizedException("You can only cancel your own leave requests");
         }
 
-        if (leaveRequest.getStatus() == LeaveStatus.CANCELLED) {
-            throw new IllegalStateException("Leave request is already cancelled");
-        }
-
+        // Cancel from whatever status the request has at the moment of the update; if a review
+        // lands in between, retry from the status it left so approved days are returned exactly once
         LeaveStatus oldStatus = leaveRequest.getStatus();
-        leaveRequest.setStatus(LeaveStatus.CANCELLED);
-        leaveRequestRepository.save(leaveRequest);
+        for (int attempt = 1; ; attempt++) {
+            if (oldStatus == LeaveStatus.CANCELLED) {
+                throw new IllegalStateException("Leave request is already cancelled");
+            }
+            if (leaveRequestRepository.transitionStatus(requestId, oldStatus, LeaveStatus.CANCELLED, LocalDateTime.now()) == 1) {
+                break;
+            }
+            if (attempt == MAX_STATUS_ATTEMPTS) {
+                throw new IllegalStateException("Leave request is being updated concurrently, please retry");
+            }
+            oldStatus = leaveRequestRepository.findStatusById(requestId);
+        }
 
         // If it was approved, add days back to balance
         if (oldStatus == LeaveStatus.APPROVED) {
             int year = leaveRequest.getStartDate().getYear();
-            application.leavemanagementservice.Entity.LeaveBalance balance = leaveBalanceRepository
-                    .findByUserIdAndLeaveTypeAndYear(userId, leaveRequest.getLeaveType(), year)
-                    .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
-
-            balance.addBackDays(leaveRequest.getNumberOfDays());
-            leaveBalanceRepository.save(balance);
+            int updated = leaveBalanceRepository.addBackDays(
+                    userId, leaveRequest.getLeaveType(), year, leaveRequest.getNumberOfDays(), LocalDateTime.now());
+            if (updated == 0) {
+                throw new ResourceNotFoundException("Leave balance not found");
+            }
         }
 
         log.info("Leave request {} cancelled successfully", requestId);
     }
 
-    public List<LeaveRequestResponse> getMyLeaveRequests(Long userId, String token) {
-        UserDTO user = authServiceClient.getUserById(userId);
-        List<application.leavemanagementservice.Entity.LeaveRequest> requests = leaveRequestRepository.findByUserId(userId);
+    private void deductFromBalance(LeaveRequest leaveRequest) {
+        int year = leaveRequest.getStartDate().getYear();
+        int updated = leaveBalanceRepository.deductDays(leaveRequest.getUserId(), leaveRequest.getLeaveType(), year,
+                leaveRequest.getNumberOfDays(), LocalDateTime.now());
+        if (updated == 1) {
+            return;
+        }
 
-        return requests.stream()
-                .map(req -> mapToResponse(req, user, null))
-                .collect(Collectors.toList());
+        LeaveBalance balance = leaveBalanceRepository
+                .findByUserIdAndLeaveTypeAndYear(leaveRequest.getUserId(), leaveRequest.getLeaveType(), year)
+                .orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
+        throw new InsufficientLeaveBalanceException(
+                String.format(
+                        "Insufficient leave balance. Available: %.1f days, Requested: %.1f days",
+                        balance.getAvailableDays(), leaveRequest.getNumberOfDays()
+                )
+        );
+    }
+
+    public LeaveRequestPage getMyLeaveRequests(Long userId, String token, LeaveRequestFilter filter) {
+        UserDTO user = userDirectoryService.getUser(userId);
+
+        int limit = pageLimit(filter);
+        List<LeaveRequest> rows = fetchPage(LeaveRequestSpecifications.forUser(userId), filter, limit);
+
+        return toPage(rows, limit, req -> mapToResponse(req, user, null));
     }
 
     public List<LeaveRequestResponse> getTeamLeaveRequests(Long managerId, String token) {
-        UserDTO manager = authServiceClient.getUserById(managerId);
+        UserDTO manager = userDirectoryService.getUser(managerId);
 
-        // Verify user is a manager or HR admin
-        if (!"MANAGER".equals(manager.getRole()) && !"HR_ADMIN".equals(manager.getRole())) {
-            throw new UnauthorizedException("Only managers or HR admins can view team leave requests");
+        // Verify user is a manager or admin
+        if (!"MANAGER".equals(manager.getRole()) && !"ADMIN".equals(manager.getRole())) {
+            throw new UnauthorizedException("Only managers or admins can view team leave requests");
         }
 
         // Get all leave requests (not just assigned to this manager)
         List<application.leavemanagementservice.Entity.LeaveRequest> requests = leaveRequestRepository.findAll();
 
+        Map<Long, UserDTO> users = resolveUsers(requests, true);
+
         return requests.stream()
                 .map(req -> {
-                    UserDTO employee = authServiceClient.getUserById(req.getUserId());
-                    UserDTO approver = req.getManagerId() != null ?
-                            authServiceClient.getUserById(req.getManagerId()) : null;
+                    UserDTO employee = users.get(req.getUserId());
+                    UserDTO approver = req.getManagerId() != null ? users.get(req.getManagerId()) : null;
                     return mapToResponse(req, employee, approver);
                 })
                 .collect(Collectors.toList());
     }
 
-    public List<LeaveRequestResponse> getPendingApprovals(Long managerId, String token) {
-        UserDTO manager = authServiceClient.getUserById(managerId);
+    public LeaveRequestPage getPendingApprovals(Long managerId, String token, LeaveRequestFilter filter) {
+        UserDTO manager = userDirectoryService.getUser(managerId);
 
-        // Verify user is a manager or HR admin
-        if (!"MANAGER".equals(manager.getRole()) && !"HR_ADMIN".equals(manager.getRole())) {
-            throw new UnauthorizedException("Only managers or HR admins can view pending approvals");
+        // Verify user is a manager or admin
+        if (!"MANAGER".equals(manager.getRole()) && !"ADMIN".equals(manager.getRole())) {
+            throw new UnauthorizedException("Only managers or admins can view pending approvals");
         }
 
-        // Get all pending requests (not just for this manager)
-        List<application.leavemanagementservice.Entity.LeaveRequest> requests = leaveRequestRepository
-                .findByStatus(LeaveStatus.PENDING);
-
-        return requests.stream()
-                .map(req -> {
-                    UserDTO employee = authServiceClient.getUserById(req.getUserId());
-                    return mapToResponse(req, employee, manager);
-                })
-                .collect(Collectors.toList());
-    }
-
-    public List<LeaveBalanceResponse> getMyLeaveBalances(Long userId, String token) {
-        UserDTO user = authServiceClient.getUserById(userId);
-
-        int currentYear = LocalDate.now().getYear();
-        List<LeaveBalance> balances = leaveBalanceRepository.findByUserIdAndYear(userId, currentYear);
-
-        // If no balances exist, create default ones
-        if (balances.isEmpty()) {
-            for (LeaveType type : LeaveType.values()) {
-                balances.add(createDefaultBalance(userId, type, currentYear, user.getJoiningDate()));
-            }
+        // Managers see the requests routed to them or to nobody, admins the whole company's; soonest start first
+        Specification<LeaveRequest> scope = LeaveRequestSpecifications.withStatus(LeaveStatus.PENDING);
+        if ("MANAGER".equals(manager.getRole())) {
+            scope = scope.and(LeaveRequestSpecifications.reviewableBy(managerId));
         }
 
-        // Update accrued days for all balances
-        balances = updateAccruedDays(balances, user.getJoiningDate());
+        int limit = pageLimit(filter);
+        List<LeaveRequest> rows = fetchPage(scope, LeaveRequestSpecifications.startingAfter(filter.getCursor()),
+                LeaveRequestSpecifications.SOONEST_FIRST, filter, limit);
+        Map<Long, UserDTO> users = resolveUsers(rows, false);
 
-        return balances.stream()
-                .map(this::mapToBalanceResponse)
-                .collect(Collectors.toList());
+        return toPage(rows, limit, LeaveRequestSpecifications::startCursorOf,
+                req -> mapToResponse(req, users.get(req.getUserId()), manager));
     }
 
     /**
-     * Update accrued days for all balances in real-time
+     * Read-only: accrual is projected from the stored rows rather than written back
+     * (AccrualRefreshJob persists it nightly), and leave types without a row yet are shown
+     * with the defaults the user's first request of that type will create. Not transactional,
+     * so no connection is held while the user is looked up, possibly from auth-service.
      */
-    private List<LeaveBalance> updateAccruedDays(List<LeaveBalance> balances, LocalDate joiningDate) {
-        int currentYear = LocalDate.now().getYear();
-
-        for (LeaveBalance balance : balances) {
-            // Only apply accrual to ANNUAL leave type
-            if (balance.getLeaveType() == LeaveType.ANNUAL) {
-                // Calculate accrued days
-                double accruedDays = leaveAccrualService.calculateAccruedDays(
-                        joiningDate != null ? joiningDate : LocalDate.of(currentYear, 1, 1),
-                        currentYear
-                );
-                balance.setAccruedDays(accruedDays);
-
-                // Check if carryover has expired
-                if (balance.getCarryoverExpiryDate() != null &&
-                        leaveAccrualService.hasCarryoverExpired(balance.getCarryoverExpiryDate())) {
-                    balance.setCarryoverDays(0.0);
-                }
-
-                // Calculate total available
-                double totalAvailable = leaveAccrualService.calculateTotalAvailable(
-                        accruedDays,
-                        balance.getCarryoverDays() != null ? balance.getCarryoverDays() : 0.0,
-                        balance.getUsedDays(),
-                        balance.getCarryoverExpiryDate() != null &&
-                                leaveAccrualService.hasCarryoverExpired(balance.getCarryoverExpiryDate())
-                );
-
-                balance.setAvailableDays(totalAvailable);
-                balance.setTotalDays(accruedDays + (balance.getCarryoverDays() != null ? balance.getCarryoverDays() : 0.0));
+    public List<LeaveBalanceResponse> getMyLeaveBalances(Long userId, String token) {
+        UserDTO user = userDirectoryService.getUser(userId);
 
-                leaveBalanceRepository.save(balance);
-            }
+        LocalDate today = LocalDate.now();
+        Map<LeaveType, LeaveBalance> stored = new EnumMap<>(LeaveType.class);
+        for (LeaveBalance balance : leaveBalanceRepository.findByUserIdAndYear(userId, today.getYear())) {
+            stored.put(balance.getLeaveType(), balance);
         }
 
-        return balances;
+        return Arrays.stream(LeaveType.values())
+                .map(type -> stored.containsKey(type)
+                        ? stored.get(type)
+                        : newDefaultBalance(userId, type, today.getYear(), user.getJoiningDate()))
+                .map(balance -> leaveAccrualService.project(balance, today))
+                .map(this::mapToBalanceResponse)
+                .collect(Collectors.toList());
     }
 
     private LeaveBalance createDefaultBalance(Long userId, LeaveType leaveType, int year, LocalDate joiningDate) {
+        return leaveBalanceRepository.save(newDefaultBalance(userId, leaveType, year, joiningDate));
+    }
+
+    private LeaveBalance newDefaultBalance(Long userId, LeaveType leaveType, int year, LocalDate joiningDate) {
         LeaveBalance balance = new LeaveBalance();
         balance.setUserId(userId);
         balance.setLeaveType(leaveType);
@@ -339,7 +346,7 @@ public class LeaveService {
             balance.setAvailableDays((double) leaveType.getDefaultAllowance());
         }
 
-        return leaveBalanceRepository.save(balance);
+        return balance;
     }
 
     private double calculateWorkingDays(LocalDate start, LocalDate end) {
@@ -347,11 +354,25 @@ public class LeaveService {
         return ChronoUnit.DAYS.between(start, end) + 1;
     }
 
+    // Every employee (and optionally approver) on a result set in one lookup instead of one per row
+    private Map<Long, UserDTO> resolveUsers(List<LeaveRequest> requests, boolean withApprovers) {
+        Set<Long> userIds = new HashSet<>();
+        for (LeaveRequest request : requests) {
+            userIds.add(request.getUserId());
+            if (withApprovers && request.getManagerId() != null) {
+                userIds.add(request.getManagerId());
+            }
+        }
+        return userDirectoryService.getUsers(userIds);
+    }
+
     private LeaveRequestResponse mapToResponse(application.leavemanagementservice.Entity.LeaveRequest request, UserDTO employee, UserDTO manager) {
         LeaveRequestResponse response = new LeaveRequestResponse();
         response.setId(request.getId());
         response.setUserId(request.getUserId());
-        response.setEmployeeName(employee.getFirstName() + " " + employee.getLastName());
+        if (employee != null) {
+            response.setEmployeeName(employee.getFirstName() + " " + employee.getLastName());
+        }
         response.setLeaveType(request.getLeaveType());
         response.setStartDate(request.getStartDate());
         response.setEndDate(request.getEndDate());
@@ -399,17 +420,14 @@ public class LeaveService {
     }
 
     @Transactional(readOnly = true)
-    public List<LeaveRequestResponse> getAllLeaves() {
-        log.info("Fetching all leave requests in the system");
+    public LeaveRequestPage getAllLeaves(LeaveRequestFilter filter) {
+        log.info("Fetching leave requests in the system");
 
-        List<LeaveRequest> leaves = leaveRequestRepository.findAll();
+        int limit = pageLimit(filter);
+        List<LeaveRequest> rows = fetchPage(null, filter, limit);
+        Map<Long, UserDTO> users = resolveUsers(rows, false);
 
-        return leaves.stream()
-                .map(leave -> {
-                    UserDTO user = authServiceClient.getUserById(leave.getUserId());
-                    return mapToResponse(leave, user, null);
-                })
-                .collect(Collectors.toList());
+        return toPage(rows, limit, leave -> mapToResponse(leave, users.get(leave.getUserId()), null));
     }
 
     @Transactional(readOnly = true)
@@ -421,22 +439,58 @@ public class LeaveService {
                         String.format("Leave request with ID %d not found", leaveId)
                 ));
 
-        UserDTO user = authServiceClient.getUserById(leaveRequest.getUserId());
+        UserDTO user = userDirectoryService.getUser(leaveRequest.getUserId());
 
         return mapToResponse(leaveRequest, user, null);
     }
 
     @Transactional(readOnly = true)
-    public List<LeaveRequestResponse> getLeavesByUser(Long userId) {
-        log.info("Fetching all leave requests for user: {}", userId);
+    public LeaveRequestPage getLeavesByUser(Long userId, LeaveRequestFilter filter) {
+        log.info("Fetching leave requests for user: {}", userId);
 
-        UserDTO user = authServiceClient.getUserById(userId);
+        UserDTO user = userDirectoryService.getUser(userId);
 
-        List<LeaveRequest> leaves = leaveRequestRepository.findByUserId(userId);
+        int limit = pageLimit(filter);
+        List<LeaveRequest> rows = fetchPage(LeaveRequestSpecifications.forUser(userId), filter, limit);
 
-        return leaves.stream()
-                .map(leave -> mapToResponse(leave, user, null))
-                .collect(Collectors.toList());
+        return toPage(rows, limit, leave -> mapToResponse(leave, user, null));
+    }
+
+    private int pageLimit(LeaveRequestFilter filter) {
+        return Math.max(1, Math.min(filter.getLimit(), pageMaxSize));
+    }
+
+    private List<LeaveRequest> fetchPage(Specification<LeaveRequest> scope, LeaveRequestFilter filter, int limit) {
+        return fetchPage(scope, LeaveRequestSpecifications.after(filter.getCursor()),
+                LeaveRequestSpecifications.NEWEST_FIRST, filter, limit);
+    }
+
+    // One keyset page of scope narrowed by the filter, plus one extra row that tells whether a next page exists
+    private List<LeaveRequest> fetchPage(Specification<LeaveRequest> scope, Specification<LeaveRequest> position,
+                                         Sort order, LeaveRequestFilter filter, int limit) {
+        Specification<LeaveRequest> spec = Specification.where(scope)
+                .and(LeaveRequestSpecifications.matching(filter))
+                .and(position);
+
+        return leaveRequestRepository.findBy(spec, query -> query
+                .sortBy(order)
+                .limit(limit + 1)
+                .all());
+    }
+
+    private LeaveRequestPage toPage(List<LeaveRequest> rows, int limit,
+                                    Function<LeaveRequest, LeaveRequestResponse> mapper) {
+        return toPage(rows, limit, LeaveRequestSpecifications::cursorOf, mapper);
+    }
+
+    private LeaveRequestPage toPage(List<LeaveRequest> rows, int limit,
+                                    Function<LeaveRequest, String> cursorOf,
+                                    Function<LeaveRequest, LeaveRequestResponse> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<LeaveRequest> page = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = hasNext ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new LeaveRequestPage(page.stream().map(mapper).toList(), nextCursor);
     }
 
 
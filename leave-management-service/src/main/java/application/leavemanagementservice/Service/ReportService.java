@@ -6,7 +6,6 @@ import application.leavemanagementservice.Entity.LeaveRequest;
 import application.leavemanagementservice.ENUM.LeaveStatus;
 import application.leavemanagementservice.Repository.LeaveBalanceRepository;
 import application.leavemanagementservice.Repository.LeaveRequestRepository;
-import application.leavemanagementservice.config.AuthServiceClient;
 import application.leavemanagementservice.dto.LeaveReportDTO;
 import application.leavemanagementservice.dto.UserDTO;
 import lombok.RequiredArgsConstructor;
@@ -29,7 +28,7 @@ public class ReportService {
 
     private final LeaveRequestRepository leaveRequestRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
-    private final AuthServiceClient authServiceClient;
+    private final UserDirectoryService userDirectoryService;
 
     public byte[] generateLeaveReportCSV(Integer year) {
         List<LeaveReportDTO> reportData = generateLeaveReportData(year);
@@ -118,7 +117,7 @@ public class ReportService {
                 ));
 
         return balances.stream().map(balance -> {
-            UserDTO user = authServiceClient.getUserById(balance.getUserId());
+            UserDTO user = userDirectoryService.getUser(balance.getUserId());
 
             String key = balance.getUserId() + "-" + balance.getLeaveType();
             Map<String, List<LeaveRequest>> statusMap = requestsByUserAndType.getOrDefault(key, Map.of());
@@ -0,0 +1,232 @@
+package application.leavemanagementservice.Service;
+
+import application.leavemanagementservice.Entity.DirectoryUser;
+import application.leavemanagementservice.Repository.DirectoryUserRepository;
+import application.leavemanagementservice.config.AuthServiceClient;
+import application.leavemanagementservice.dto.UserDTO;
+import application.leavemanagementservice.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves users from the local user_directory replica. Only a user the
+ * replica does not know yet (created in the last sync interval) costs a call
+ * to auth-service.
+ * <p>
+ * Lookups go through a bounded in-memory cache:
+ * <ul>
+ *     <li>concurrent misses for one id share a single load;</li>
+ *     <li>users that exist nowhere are remembered for negative-ttl;</li>
+ *     <li>after refresh-after an entry is still served while it reloads in the
+ *     background, and kept if the reload fails, until ttl, so a short
+ *     auth-service outage does not fail leave reads.</li>
+ * </ul>
+ * Misses are loaded on the calling thread but outside the cache's internal
+ * locks, so a virtual thread waiting on the database or auth-service does not
+ * pin its carrier.
+ * Statistics are published as cache.* with cache=users.
+ */
+@Service
+@Slf4j
+public class UserDirectoryService {
+
+    private static final int REMOTE_BATCH_SIZE = 500;
+
+    private final DirectoryUserRepository directoryUserRepository;
+    private final AuthServiceClient authServiceClient;
+    private final AsyncLoadingCache<Long, Optional<UserDTO>> cache;
+
+    public UserDirectoryService(DirectoryUserRepository directoryUserRepository,
+                                AuthServiceClient authServiceClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${user-directory.cache.max-size:10000}") long maxSize,
+                                @Value("${user-directory.cache.ttl:PT30M}") Duration ttl,
+                                @Value("${user-directory.cache.refresh-after:PT1M}") Duration refreshAfter,
+                                @Value("${user-directory.cache.negative-ttl:PT1M}") Duration negativeTtl) {
+        this.directoryUserRepository = directoryUserRepository;
+        this.authServiceClient = authServiceClient;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceExpiry(ttl, negativeTtl))
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .buildAsync(new DirectoryLoader());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public UserDTO getUser(Long userId) {
+        return cache.synchronous().getAll(List.of(userId)).get(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+    }
+
+    /**
+     * Resolve many users at once: one replica query, plus at most one batch call
+     * per 500 users the replica does not know yet. Unknown ids are absent from the map.
+     */
+    public Map<Long, UserDTO> getUsers(Collection<Long> userIds) {
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, UserDTO> users = new HashMap<>();
+        cache.synchronous().getAll(ids).forEach((id, user) -> user.ifPresent(found -> users.put(id, found)));
+        return users;
+    }
+
+    /**
+     * Insert or overwrite the given users in the replica.
+     */
+    @Transactional
+    public void upsert(Collection<UserDTO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        // Load the existing rows in one query so saveAll merges them without a select each
+        Map<Long, DirectoryUser> existing = directoryUserRepository
+                .findAllById(users.stream().map(UserDTO::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(DirectoryUser::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DirectoryUser> rows = users.stream()
+                .map(user -> {
+                    DirectoryUser row = existing.getOrDefault(user.getId(), new DirectoryUser());
+                    row.setId(user.getId());
+                    row.setEmail(user.getEmail());
+                    row.setFirstName(user.getFirstName());
+                    row.setLastName(user.getLastName());
+                    row.setRole(user.getRole());
+                    row.setDepartment(user.getDepartment());
+                    row.setManagerId(user.getManagerId());
+                    row.setJoiningDate(user.getJoiningDate());
+                    row.setSyncedAt(now);
+                    return row;
+                })
+                .toList();
+
+        directoryUserRepository.saveAll(rows);
+        rows.forEach(row -> cache.synchronous().put(row.getId(), Optional.of(toDTO(row))));
+    }
+
+    private static UserDTO toDTO(DirectoryUser user) {
+        return new UserDTO(
+                user.getId(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole(),
+                user.getDepartment(),
+                user.getManagerId(),
+                user.getJoiningDate()
+        );
+    }
+
+    /**
+     * Replica first, auth-service for whatever it does not have. A 404 from
+     * auth-service is cached as empty; any other failure is not cached.
+     */
+    private class DirectoryLoader implements CacheLoader<Long, Optional<UserDTO>> {
+
+        @Override
+        public Optional<UserDTO> load(Long userId) {
+            Optional<UserDTO> local = directoryUserRepository.findById(userId).map(UserDirectoryService::toDTO);
+            if (local.isPresent()) {
+                return local;
+            }
+
+            log.debug("User {} not in local directory yet, asking auth-service", userId);
+            try {
+                return Optional.ofNullable(authServiceClient.getUserById(userId));
+            } catch (FeignException.NotFound e) {
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public Map<Long, Optional<UserDTO>> loadAll(Set<? extends Long> keys) {
+            List<Long> userIds = List.copyOf(keys);
+            Map<Long, Optional<UserDTO>> users = new HashMap<>();
+            directoryUserRepository.findAllById(userIds)
+                    .forEach(user -> users.put(user.getId(), Optional.of(toDTO(user))));
+
+            List<Long> missing = userIds.stream().filter(id -> !users.containsKey(id)).toList();
+            for (int from = 0; from < missing.size(); from += REMOTE_BATCH_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + REMOTE_BATCH_SIZE, missing.size()));
+                log.debug("{} user(s) not in local directory yet, asking auth-service", chunk.size());
+                authServiceClient.getUsersByIds(chunk).forEach(user -> users.put(user.getId(), Optional.of(user)));
+            }
+
+            missing.forEach(id -> users.putIfAbsent(id, Optional.empty()));
+            return users;
+        }
+
+        /**
+         * Every lookup, single ids included, comes through here. Caffeine calls it
+         * after registering the pending keys rather than inside a map compute, so
+         * loading right here keeps the work on the caller's thread without holding
+         * a lock. Background refreshes still go through load on the cache's executor.
+         */
+        @Override
+        public CompletableFuture<Map<Long, Optional<UserDTO>>> asyncLoadAll(Set<? extends Long> keys, Executor executor) {
+            try {
+                return CompletableFuture.completedFuture(loadAll(keys));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+
+    /**
+     * Found users live for ttl, unknown ids only for negative-ttl.
+     */
+    private static class PresenceExpiry implements Expiry<Long, Optional<UserDTO>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PresenceExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long userId, Optional<UserDTO> user, long currentTime) {
+            return user.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long userId, Optional<UserDTO> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long userId, Optional<UserDTO> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
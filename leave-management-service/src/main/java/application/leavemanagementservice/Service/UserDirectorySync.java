@@ -0,0 +1,96 @@
+package application.leavemanagementservice.Service;
+
+import application.leavemanagementservice.config.AuthServiceClient;
+import application.leavemanagementservice.dto.UserChangePageDTO;
+import application.leavemanagementservice.dto.UserPageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps user_directory in step with authentication-service.
+ * The first run after startup copies every user, then each run pulls the ids
+ * changed since the last cursor from auth-service's outbox feed and re-fetches
+ * those users in one batch. Runs that fail (auth-service down) are retried on
+ * the next tick; reads keep using the replica meanwhile.
+ */
+@Component
+@Slf4j
+public class UserDirectorySync {
+
+    private static final long RESYNC = -1;
+
+    private final AuthServiceClient authServiceClient;
+    private final UserDirectoryService userDirectoryService;
+    private final int pageSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long cursor = RESYNC;
+
+    public UserDirectorySync(AuthServiceClient authServiceClient,
+                             UserDirectoryService userDirectoryService,
+                             @Value("${user-directory.sync.page-size:500}") int pageSize) {
+        this.authServiceClient = authServiceClient;
+        this.userDirectoryService = userDirectoryService;
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${user-directory.sync.interval:PT15S}")
+    public void sync() {
+        // A lock rather than synchronized so a virtual thread does not pin its carrier during the remote calls
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            if (cursor == RESYNC) {
+                fullResync();
+            } else {
+                pullChanges();
+            }
+        } catch (Exception e) {
+            log.warn("User directory sync failed, retrying next run: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fullResync() {
+        // Take the cursor first: changes made during the copy are replayed afterwards, which is harmless
+        long startCursor = authServiceClient.getLatestUserChange();
+
+        int copied = 0;
+        Long afterId = 0L;
+        do {
+            UserPageDTO page = authServiceClient.listUsers(afterId, pageSize);
+            userDirectoryService.upsert(page.getUsers());
+            copied += page.getUsers().size();
+            afterId = page.getNextAfterId();
+        } while (afterId != null);
+
+        cursor = startCursor;
+        log.info("User directory resynced: {} user(s), change cursor {}", copied, startCursor);
+    }
+
+    private void pullChanges() {
+        while (true) {
+            UserChangePageDTO page = authServiceClient.getUserChanges(cursor, pageSize);
+            if (page.isResyncRequired()) {
+                log.warn("User change feed no longer covers cursor {}, resyncing", cursor);
+                cursor = RESYNC;
+                fullResync();
+                return;
+            }
+            if (!page.getUserIds().isEmpty()) {
+                userDirectoryService.upsert(authServiceClient.getUsersByIds(page.getUserIds()));
+                log.debug("User directory updated {} user(s) up to cursor {}", page.getUserIds().size(), page.getNextCursor());
+            }
+            if (page.getNextCursor() == cursor) {
+                return;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package application.leavemanagementservice.config;
+
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Entity.LeaveBalance;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import application.leavemanagementservice.Service.LeaveAccrualService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccrualRefreshJob {
+
+    private final LeaveBalanceRepository leaveBalanceRepository;
+    private final LeaveAccrualService leaveAccrualService;
+
+    /**
+     * Run nightly to store each ANNUAL balance's accrual as of today, so the stored
+     * figures that leave requests and approvals check stay current. Balance reads
+     * project accrual themselves and do not depend on this.
+     */
+    @Scheduled(cron = "${leave.accrual.refresh-cron:0 30 0 * * *}")
+    public void refreshAccruals() {
+        LocalDate today = LocalDate.now();
+        log.info("Starting accrual refresh for {}", today);
+
+        List<LeaveBalance> balances = leaveBalanceRepository.findByYear(today.getYear());
+
+        int checked = 0;
+        for (LeaveBalance balance : balances) {
+            if (balance.getLeaveType() != LeaveType.ANNUAL) {
+                continue;
+            }
+            try {
+                // Writes only when the stored accrual is behind
+                leaveAccrualService.refresh(balance, today);
+                checked++;
+            } catch (Exception e) {
+                log.error("Failed to refresh accrual for balance {}: {}", balance.getId(), e.getMessage());
+            }
+        }
+
+        log.info("Accrual refresh completed for {} balances", checked);
+    }
+}
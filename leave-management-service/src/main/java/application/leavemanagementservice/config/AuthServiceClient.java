@@ -1,10 +1,19 @@
 package application.leavemanagementservice.config;
 
+import application.leavemanagementservice.dto.UserChangePageDTO;
 import application.leavemanagementservice.dto.UserDTO;
+import application.leavemanagementservice.dto.UserPageDTO;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "auth-service", url = "${auth.service.url}")
 public interface AuthServiceClient {
@@ -12,6 +21,20 @@ public interface AuthServiceClient {
     @GetMapping("/api/auth/user/{userId}")
     UserDTO getUserById(@PathVariable("userId") Long userId);
 
+    // Unknown ids are left out of the result
+    @PostMapping("/api/auth/users/batch")
+    List<UserDTO> getUsersByIds(@RequestBody Collection<Long> userIds);
+
+    // Used by UserDirectorySync: full copy page by page, then the change feed from a cursor
+    @GetMapping(value = "/api/auth/users", produces = MediaType.APPLICATION_JSON_VALUE)
+    UserPageDTO listUsers(@RequestParam("afterId") Long afterId, @RequestParam("limit") int limit);
+
+    @GetMapping("/api/auth/users/changes")
+    UserChangePageDTO getUserChanges(@RequestParam("after") long after, @RequestParam("limit") int limit);
+
+    @GetMapping("/api/auth/users/changes/latest")
+    Long getLatestUserChange();
+
     @GetMapping("/api/users/me")
     UserDTO getCurrentUser(@RequestHeader("Authorization") String token);
 
@@ -0,0 +1,24 @@
+package application.leavemanagementservice.dto;
+
+import application.leavemanagementservice.ENUM.LeaveStatus;
+import application.leavemanagementservice.ENUM.LeaveType;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Query parameters shared by the paginated leave listings; every filter is optional
+@Data
+public class LeaveRequestFilter {
+    private LeaveStatus status;
+    private LeaveType leaveType;
+
+    // Leaves overlapping [from, to]
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    private String cursor; // nextCursor of the previous page
+    private int limit = 50;
+}
@@ -0,0 +1,16 @@
+package application.leavemanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a leave listing, newest first
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveRequestPage {
+    private List<LeaveRequestResponse> requests;
+    private String nextCursor; // pass as cursor for the next page; null on the last page
+}
@@ -0,0 +1,17 @@
+package application.leavemanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of auth-service's user change feed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangePageDTO {
+    private List<Long> userIds;
+    private Long nextCursor;
+    private boolean resyncRequired; // the feed no longer reaches back to our cursor
+}
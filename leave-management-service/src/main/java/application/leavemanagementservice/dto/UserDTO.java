@@ -14,7 +14,7 @@ public class UserDTO {
     private String email;
     private String firstName;
     private String lastName;
-    private String role; // EMPLOYEE, MANAGER, HR_ADMIN
+    private String role; // STAFF, MANAGER, ADMIN
     private String department;
     private Long managerId; // ID of their manager
     private LocalDate joiningDate;
@@ -0,0 +1,16 @@
+package application.leavemanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of auth-service's keyset-paginated user listing
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDTO> users;
+    private Long nextAfterId; // null on the last page
+}
@@ -0,0 +1,57 @@
+-- Schema as previously created by hibernate.ddl-auto=update. IF NOT EXISTS lets
+-- databases that were created that way adopt the migrations unchanged.
+
+CREATE TABLE IF NOT EXISTS leave_requests (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id             BIGINT           NOT NULL,
+    leave_type          VARCHAR(255)     NOT NULL,
+    start_date          DATE             NOT NULL,
+    end_date            DATE             NOT NULL,
+    number_of_days      DOUBLE PRECISION NOT NULL,
+    status              VARCHAR(255)     NOT NULL,
+    reason              TEXT,
+    manager_id          BIGINT,
+    manager_comments    TEXT,
+    reviewed_at         TIMESTAMP(6),
+    created_at          TIMESTAMP(6),
+    updated_at          TIMESTAMP(6),
+    document_url        VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS leave_balances (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                 BIGINT           NOT NULL,
+    leave_type              VARCHAR(255)     NOT NULL,
+    year                    INTEGER          NOT NULL,
+    total_days              DOUBLE PRECISION NOT NULL,
+    used_days               DOUBLE PRECISION NOT NULL,
+    available_days          DOUBLE PRECISION NOT NULL,
+    accrued_days            DOUBLE PRECISION,
+    carryover_days          DOUBLE PRECISION,
+    carryover_expiry_date   DATE,
+    employment_start_date   DATE,
+    created_at              TIMESTAMP(6),
+    updated_at              TIMESTAMP(6),
+    CONSTRAINT uk_leave_balances_user_type_year UNIQUE (user_id, leave_type, year)
+);
+
+CREATE TABLE IF NOT EXISTS public_holidays (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    date            DATE         NOT NULL,
+    year            INTEGER      NOT NULL,
+    description     VARCHAR(255),
+    is_recurring    BOOLEAN      NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_directory (
+    id              BIGINT PRIMARY KEY,
+    email           VARCHAR(255) NOT NULL,
+    first_name      VARCHAR(255),
+    last_name       VARCHAR(255),
+    role            VARCHAR(255),
+    department      VARCHAR(255),
+    manager_id      BIGINT,
+    joining_date    DATE,
+    synced_at       TIMESTAMP(6)
+);
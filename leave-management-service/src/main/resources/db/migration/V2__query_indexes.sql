@@ -0,0 +1,30 @@
+-- One index per access path in LeaveRequestRepository, LeaveBalanceRepository
+-- and PublicHolidayRepository. LeaveRequestIndexPlanTests checks the plans.
+
+-- Keyset-paginated listings (LeaveRequestSpecifications.NEWEST_FIRST), overall,
+-- per user (also findByUserId, findByUserIdAndStatus) and per status (also findByStatus)
+CREATE INDEX IF NOT EXISTS idx_leave_requests_created
+    ON leave_requests (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_leave_requests_user_created
+    ON leave_requests (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_leave_requests_status_created
+    ON leave_requests (status, created_at DESC, id DESC);
+
+-- A manager's approval queue, soonest start first (also findByManagerId)
+CREATE INDEX IF NOT EXISTS idx_leave_requests_manager_status_start
+    ON leave_requests (manager_id, status, start_date, id);
+
+-- findOverlappingLeaves: a user's leaves around a date range
+CREATE INDEX IF NOT EXISTS idx_leave_requests_user_dates
+    ON leave_requests (user_id, start_date, end_date);
+
+-- findByUserIdAndLeaveTypeAndYear and findByUserId use the unique constraint;
+-- findByUserIdAndYear and findByYear (year-end carry-over, balance report) need year first
+CREATE INDEX IF NOT EXISTS idx_leave_balances_year_user
+    ON leave_balances (year, user_id);
+
+-- findByYear, findUpcomingHolidays, findHolidaysBetween
+CREATE INDEX IF NOT EXISTS idx_public_holidays_year
+    ON public_holidays (year);
+CREATE INDEX IF NOT EXISTS idx_public_holidays_date
+    ON public_holidays (date);
@@ -0,0 +1,20 @@
+-- Overlap and range queries compare a leave's [start_date, end_date] with another
+-- range. As BETWEEN/OR predicates no B-tree serves them well; as a daterange they
+-- are a single && on a GiST index. Needs Postgres 12+ for the generated column.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE leave_requests
+    ADD COLUMN IF NOT EXISTS period DATERANGE
+        GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED;
+
+-- One user's leaves around a date range (findOverlappingLeaves, the user calendar)
+CREATE INDEX IF NOT EXISTS idx_leave_requests_user_period
+    ON leave_requests USING gist (user_id, period);
+
+-- Everyone's leaves in a date range (team calendar, who is out today)
+CREATE INDEX IF NOT EXISTS idx_leave_requests_period
+    ON leave_requests USING gist (period);
+
+-- Superseded by idx_leave_requests_user_period
+DROP INDEX IF EXISTS idx_leave_requests_user_dates;
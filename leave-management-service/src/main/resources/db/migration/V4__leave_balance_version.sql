@@ -0,0 +1,2 @@
+-- Optimistic-lock version for leave_balances (LeaveBalance.version)
+ALTER TABLE leave_balances ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,8 @@
+-- Approval queues, soonest start first: an admin's covers every pending request, a
+-- manager's those routed to them or to nobody (LeaveRequestSpecifications.reviewableBy).
+-- The OR on manager_id rules out a manager_id-first index, so both walk this one.
+CREATE INDEX IF NOT EXISTS idx_leave_requests_status_start
+    ON leave_requests (status, start_date, id);
+
+-- Superseded by idx_leave_requests_status_start
+DROP INDEX IF EXISTS idx_leave_requests_manager_status_start;
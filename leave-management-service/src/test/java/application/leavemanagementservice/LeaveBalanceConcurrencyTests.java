@@ -0,0 +1,213 @@
+package application.leavemanagementservice;
+
+import application.leavemanagementservice.ENUM.LeaveStatus;
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Entity.LeaveBalance;
+import application.leavemanagementservice.Entity.LeaveRequest;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import application.leavemanagementservice.Repository.LeaveRequestRepository;
+import application.leavemanagementservice.Service.CloudinaryService;
+import application.leavemanagementservice.Service.EmailService;
+import application.leavemanagementservice.Service.LeaveAccrualService;
+import application.leavemanagementservice.Service.LeaveService;
+import application.leavemanagementservice.Service.UserDirectoryService;
+import application.leavemanagementservice.dto.LeaveActionDTO;
+import application.leavemanagementservice.dto.UserDTO;
+import application.leavemanagementservice.exceptions.InsufficientLeaveBalanceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Races hundreds of approvals and cancellations against one balance and checks
+ * that no change is lost or applied twice. Row locking is what is under test,
+ * so it runs against a real Postgres (TestPostgres) migrated by Flyway.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(LeaveService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaveBalanceConcurrencyTests {
+
+    private static final long EMPLOYEE_ID = 1L;
+    private static final long MANAGER_ID = 2L;
+    private static final int YEAR = 2030;
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @MockBean
+    private UserDirectoryService userDirectoryService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private CloudinaryService cloudinaryService;
+
+    @MockBean
+    private LeaveAccrualService leaveAccrualService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "leave_concurrency_test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository.deleteAll();
+        leaveBalanceRepository.deleteAll();
+
+        when(userDirectoryService.getUser(anyLong())).thenAnswer(invocation -> new UserDTO(
+                invocation.getArgument(0), "user@example.com", "Test", "User", "MANAGER", "Engineering", null, null));
+    }
+
+    @Test
+    void racingApprovalsAndCancellationsKeepTheBalanceExact() throws Exception {
+        saveBalance(1000.0, 100.0);
+        List<Long> approved = saveRequests(100, LeaveStatus.APPROVED);
+        List<Long> pending = saveRequests(300, LeaveStatus.PENDING);
+
+        // Every pending request approved twice, a sixth of them also cancelled, every approved one cancelled
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long id : pending) {
+            tasks.add(approve(id));
+            tasks.add(approve(id));
+        }
+        for (Long id : pending.subList(0, 50)) {
+            tasks.add(cancel(id));
+        }
+        for (Long id : approved) {
+            tasks.add(cancel(id));
+        }
+        AtomicInteger failures = runConcurrently(tasks);
+
+        // 250 pending requests approved once each; the other 50 and the 100 approved ones cancelled
+        assertThat(leaveRequestRepository.findByUserIdAndStatus(EMPLOYEE_ID, LeaveStatus.APPROVED)).hasSize(250);
+        assertThat(leaveRequestRepository.findByUserIdAndStatus(EMPLOYEE_ID, LeaveStatus.CANCELLED)).hasSize(150);
+        assertThat(balance().getUsedDays()).isEqualTo(250.0);
+        assertThat(balance().getAvailableDays()).isEqualTo(750.0);
+
+        // One of each pair of approvals loses, and both may when the cancellation comes first
+        assertThat(failures.get()).isBetween(300, 350);
+    }
+
+    @Test
+    void approvalsStopWhenTheBalanceRunsOut() throws Exception {
+        saveBalance(50.0, 0.0);
+        List<Long> pending = saveRequests(200, LeaveStatus.PENDING);
+
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Long id : pending) {
+            tasks.add(() -> {
+                try {
+                    leaveService.reviewLeaveRequest(id, new LeaveActionDTO("APPROVE", null), MANAGER_ID, "token");
+                } catch (RuntimeException e) {
+                    errors.add(e);
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertThat(leaveRequestRepository.findByUserIdAndStatus(EMPLOYEE_ID, LeaveStatus.APPROVED)).hasSize(50);
+        assertThat(leaveRequestRepository.findByUserIdAndStatus(EMPLOYEE_ID, LeaveStatus.PENDING)).hasSize(150);
+        assertThat(errors).hasSize(150).allMatch(e -> e instanceof InsufficientLeaveBalanceException);
+        assertThat(balance().getUsedDays()).isEqualTo(50.0);
+        assertThat(balance().getAvailableDays()).isEqualTo(0.0);
+    }
+
+    private Callable<Void> approve(Long requestId) {
+        return () -> {
+            leaveService.reviewLeaveRequest(requestId, new LeaveActionDTO("APPROVE", null), MANAGER_ID, "token");
+            return null;
+        };
+    }
+
+    private Callable<Void> cancel(Long requestId) {
+        return () -> {
+            leaveService.cancelLeaveRequest(requestId, EMPLOYEE_ID, "token");
+            return null;
+        };
+    }
+
+    private static AtomicInteger runConcurrently(List<Callable<Void>> tasks) throws InterruptedException {
+        Collections.shuffle(tasks);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            executor.invokeAll(tasks.stream()
+                    .<Callable<Void>>map(task -> () -> {
+                        try {
+                            task.call();
+                        } catch (IllegalStateException | InsufficientLeaveBalanceException e) {
+                            failures.incrementAndGet();
+                        }
+                        return null;
+                    })
+                    .toList());
+        } finally {
+            executor.shutdown();
+        }
+        return failures;
+    }
+
+    private void saveBalance(double totalDays, double usedDays) {
+        LeaveBalance balance = new LeaveBalance();
+        balance.setUserId(EMPLOYEE_ID);
+        balance.setLeaveType(LeaveType.ANNUAL);
+        balance.setYear(YEAR);
+        balance.setTotalDays(totalDays);
+        balance.setUsedDays(usedDays);
+        balance.setAvailableDays(totalDays - usedDays);
+        leaveBalanceRepository.save(balance);
+    }
+
+    private List<Long> saveRequests(int count, LeaveStatus status) {
+        List<LeaveRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LeaveRequest request = new LeaveRequest();
+            request.setUserId(EMPLOYEE_ID);
+            request.setManagerId(MANAGER_ID);
+            request.setLeaveType(LeaveType.ANNUAL);
+            request.setStartDate(LocalDate.of(YEAR, 1, 1).plusDays(i));
+            request.setEndDate(LocalDate.of(YEAR, 1, 1).plusDays(i));
+            request.setNumberOfDays(1.0);
+            request.setStatus(status);
+            requests.add(request);
+        }
+        return leaveRequestRepository.saveAll(requests).stream().map(LeaveRequest::getId).toList();
+    }
+
+    private LeaveBalance balance() {
+        return leaveBalanceRepository.findByUserIdAndLeaveTypeAndYear(EMPLOYEE_ID, LeaveType.ANNUAL, YEAR).orElseThrow();
+    }
+}
@@ -0,0 +1,106 @@
+package application.leavemanagementservice;
+
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Entity.LeaveBalance;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import application.leavemanagementservice.Repository.LeaveRequestRepository;
+import application.leavemanagementservice.Service.CloudinaryService;
+import application.leavemanagementservice.Service.EmailService;
+import application.leavemanagementservice.Service.LeaveAccrualService;
+import application.leavemanagementservice.Service.LeaveService;
+import application.leavemanagementservice.Service.UserDirectoryService;
+import application.leavemanagementservice.dto.LeaveBalanceResponse;
+import application.leavemanagementservice.dto.UserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaveBalancesTests {
+
+    private static final long USER_ID = 1L;
+
+    @Mock
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Mock
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Mock
+    private UserDirectoryService userDirectoryService;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private CloudinaryService cloudinaryService;
+
+    private LeaveService leaveService;
+
+    private final int year = LocalDate.now().getYear();
+
+    @BeforeEach
+    void setUp() {
+        leaveService = new LeaveService(leaveRequestRepository, leaveBalanceRepository, userDirectoryService,
+                emailService, cloudinaryService, new LeaveAccrualService(leaveBalanceRepository));
+
+        when(userDirectoryService.getUser(USER_ID)).thenReturn(new UserDTO(USER_ID, "user@example.com", "Test", "User",
+                "STAFF", "Engineering", null, LocalDate.of(year - 3, 1, 1)));
+    }
+
+    @Test
+    void userWithoutBalancesSeesEveryTypeWithDefaults() {
+        when(leaveBalanceRepository.findByUserIdAndYear(USER_ID, year)).thenReturn(List.of());
+
+        List<LeaveBalanceResponse> balances = leaveService.getMyLeaveBalances(USER_ID, "token");
+
+        assertThat(balances).extracting(LeaveBalanceResponse::getLeaveType).containsExactly(LeaveType.values());
+        assertThat(balances).allMatch(balance -> balance.getUsedDays() == 0.0);
+        verify(leaveBalanceRepository, never()).save(any());
+    }
+
+    @Test
+    void userWithOneStoredTypeStillSeesTheOthers() {
+        LeaveBalance sick = new LeaveBalance();
+        sick.setId(7L);
+        sick.setUserId(USER_ID);
+        sick.setLeaveType(LeaveType.SICK);
+        sick.setYear(year);
+        sick.setTotalDays(15.0);
+        sick.setUsedDays(4.0);
+        sick.setAvailableDays(11.0);
+        when(leaveBalanceRepository.findByUserIdAndYear(USER_ID, year)).thenReturn(List.of(sick));
+
+        List<LeaveBalanceResponse> balances = leaveService.getMyLeaveBalances(USER_ID, "token");
+
+        assertThat(balances).extracting(LeaveBalanceResponse::getLeaveType).containsExactly(LeaveType.values());
+        LeaveBalanceResponse storedSick = byType(balances, LeaveType.SICK);
+        assertThat(storedSick.getId()).isEqualTo(7L);
+        assertThat(storedSick.getUsedDays()).isEqualTo(4.0);
+        assertThat(storedSick.getAvailableDays()).isEqualTo(11.0);
+
+        // The others are projected, not created
+        assertThat(byType(balances, LeaveType.CASUAL).getId()).isNull();
+        assertThat(byType(balances, LeaveType.CASUAL).getAvailableDays())
+                .isEqualTo((double) LeaveType.CASUAL.getDefaultAllowance());
+        assertThat(byType(balances, LeaveType.MATERNITY).getAvailableDays())
+                .isEqualTo((double) LeaveType.MATERNITY.getDefaultAllowance());
+        assertThat(byType(balances, LeaveType.ANNUAL).getUsedDays()).isEqualTo(0.0);
+        verify(leaveBalanceRepository, never()).save(any());
+    }
+
+    private static LeaveBalanceResponse byType(List<LeaveBalanceResponse> balances, LeaveType type) {
+        return balances.stream().filter(balance -> balance.getLeaveType() == type).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,321 @@
+package application.leavemanagementservice;
+
+import application.leavemanagementservice.ENUM.LeaveStatus;
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import application.leavemanagementservice.Repository.LeaveRequestRepository;
+import application.leavemanagementservice.Repository.PublicHolidayRepository;
+import application.leavemanagementservice.Service.CloudinaryService;
+import application.leavemanagementservice.Service.EmailService;
+import application.leavemanagementservice.Service.LeaveAccrualService;
+import application.leavemanagementservice.Service.LeaveService;
+import application.leavemanagementservice.Service.UserDirectoryService;
+import application.leavemanagementservice.dto.LeaveRequestFilter;
+import application.leavemanagementservice.dto.LeaveRequestPage;
+import application.leavemanagementservice.dto.UserDTO;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the statements Hibernate emits for the leave queries are planned on
+ * the indexes created by db/migration (V2, V3 and V5). Each test makes the real service
+ * or repository call against a seeded Postgres (TestPostgres), records the SQL and
+ * parameters sent through the DataSource, and EXPLAINs that statement with the same
+ * parameters bound.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LeaveService.class, LeaveRequestIndexPlanTests.RecordSql.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LeaveRequestIndexPlanTests {
+
+    private static final LocalDate MARCH_1 = LocalDate.of(2020, 3, 1);
+
+    private static final List<QueryInfo> statements = Collections.synchronizedList(new ArrayList<>());
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private PublicHolidayRepository publicHolidayRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private UserDirectoryService userDirectoryService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private CloudinaryService cloudinaryService;
+
+    @MockBean
+    private LeaveAccrualService leaveAccrualService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "leave_plan_test");
+    }
+
+    @TestConfiguration
+    static class RecordSql {
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource target)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create(target)
+                            .afterQuery((execution, queries) -> statements.addAll(queries))
+                            .build();
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    void seed() {
+        // 2000 employees with 25 requests each over 10 years, one in 7 routed to no manager
+        // and the rest to 100 managers; one in 23 still pending
+        jdbcTemplate.execute("""
+                INSERT INTO leave_requests (user_id, leave_type, start_date, end_date, number_of_days,
+                                            status, manager_id, created_at, updated_at)
+                SELECT n % 2000, (ARRAY['SICK', 'ANNUAL', 'CASUAL', 'MATERNITY'])[(n % 4) + 1],
+                       DATE '2016-01-01' + (n % 3650), DATE '2016-01-01' + (n % 3650) + (n % 10), (n % 10) + 1,
+                       CASE WHEN n % 23 = 0 THEN 'PENDING'
+                            ELSE (ARRAY['APPROVED', 'REJECTED', 'CANCELLED'])[(n / 7 % 3) + 1] END,
+                       CASE WHEN n % 7 = 0 THEN NULL ELSE n % 100 END,
+                       TIMESTAMP '2016-01-01' + n * INTERVAL '1 minute', now()
+                FROM generate_series(1, 50000) AS n
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO leave_balances (user_id, leave_type, year, total_days, used_days, available_days)
+                SELECT u, (ARRAY['SICK', 'ANNUAL', 'CASUAL', 'MATERNITY'])[t], y, 20, 0, 20
+                FROM generate_series(1, 2000) AS u, generate_series(1, 4) AS t, generate_series(2016, 2025) AS y
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO public_holidays (name, date, year, is_recurring)
+                SELECT 'Holiday ' || n, DATE '1976-01-01' + n * 24, extract(year FROM DATE '1976-01-01' + n * 24), false
+                FROM generate_series(0, 749) AS n
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(userDirectoryService.getUser(anyLong())).thenAnswer(invocation -> new UserDTO(
+                invocation.getArgument(0), "user@example.com", "Test", "User", "MANAGER", "Engineering", null, null));
+    }
+
+    @Test
+    void allRequestsPageUsesCreatedIndex() {
+        LeaveRequestFilter filter = secondPage(new LeaveRequestFilter(), leaveService::getAllLeaves);
+
+        String plan = planOf("leave_requests", () -> leaveService.getAllLeaves(filter));
+
+        assertUses(plan, "idx_leave_requests_created");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    @Test
+    void userRequestsPageUsesUserCreatedIndexFromTheCursor() {
+        LeaveRequestFilter filter = secondPage(new LeaveRequestFilter(), f -> leaveService.getLeavesByUser(42L, f));
+
+        String plan = planOf("leave_requests", () -> leaveService.getLeavesByUser(42L, filter));
+
+        // One user's few rows may be fetched by bitmap and sorted, but only from the cursor on
+        assertUses(plan, "idx_leave_requests_user_created");
+        assertThat(plan).containsPattern("Index Cond: .*user_id = .*created_at <= ");
+    }
+
+    @Test
+    void statusRequestsPageUsesStatusCreatedIndex() {
+        LeaveRequestFilter byStatus = new LeaveRequestFilter();
+        byStatus.setStatus(LeaveStatus.PENDING);
+        LeaveRequestFilter filter = secondPage(byStatus, leaveService::getAllLeaves);
+
+        String plan = planOf("leave_requests", () -> leaveService.getAllLeaves(filter));
+
+        assertUses(plan, "idx_leave_requests_status_created");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    @Test
+    void approvalQueueUsesStatusStartIndex() {
+        LeaveRequestFilter filter = secondPage(new LeaveRequestFilter(),
+                f -> leaveService.getPendingApprovals(7L, "token", f));
+
+        String plan = planOf("leave_requests", () -> leaveService.getPendingApprovals(7L, "token", filter));
+
+        assertUses(plan, "idx_leave_requests_status_start");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    @Test
+    void companyWideApprovalQueueUsesStatusStartIndex() {
+        when(userDirectoryService.getUser(1L)).thenReturn(
+                new UserDTO(1L, "admin@example.com", "Test", "Admin", "ADMIN", "HR", null, null));
+        LeaveRequestFilter filter = secondPage(new LeaveRequestFilter(),
+                f -> leaveService.getPendingApprovals(1L, "token", f));
+
+        String plan = planOf("leave_requests", () -> leaveService.getPendingApprovals(1L, "token", filter));
+
+        assertUses(plan, "idx_leave_requests_status_start");
+        assertThat(plan).doesNotContain("Sort");
+    }
+
+    @Test
+    void findByStatusUsesStatusIndex() {
+        assertUses(planOf("leave_requests", () -> leaveRequestRepository.findByStatus(LeaveStatus.PENDING)),
+                "idx_leave_requests_status_start");
+    }
+
+    @Test
+    void findByUserIdAndStatusUsesUserIndex() {
+        assertUses(planOf("leave_requests",
+                        () -> leaveRequestRepository.findByUserIdAndStatus(42L, LeaveStatus.APPROVED)),
+                "idx_leave_requests_user_period");
+    }
+
+    @Test
+    void findOverlappingLeavesUsesUserPeriodIndex() {
+        assertUses(planOf("leave_requests",
+                        () -> leaveRequestRepository.findOverlappingLeaves(42L, MARCH_1, MARCH_1.plusDays(9))),
+                "idx_leave_requests_user_period");
+    }
+
+    @Test
+    void findApprovedLeavesBetweenUsesPeriodIndex() {
+        assertUses(planOf("leave_requests",
+                        () -> leaveRequestRepository.findApprovedLeavesBetween(MARCH_1, MARCH_1.plusDays(30))),
+                "idx_leave_requests_period");
+    }
+
+    @Test
+    void balanceLookupUsesUniqueConstraint() {
+        assertUses(planOf("leave_balances",
+                        () -> leaveBalanceRepository.findByUserIdAndLeaveTypeAndYear(42L, LeaveType.ANNUAL, 2024)),
+                "uk_leave_balances_user_type_year");
+    }
+
+    @Test
+    void balancesByYearUseYearIndex() {
+        assertUses(planOf("leave_balances", () -> leaveBalanceRepository.findByYear(2024)),
+                "idx_leave_balances_year_user");
+    }
+
+    @Test
+    void userBalancesForAYearUseUniqueConstraint() {
+        assertUses(planOf("leave_balances", () -> leaveBalanceRepository.findByUserIdAndYear(42L, 2024)),
+                "uk_leave_balances_user_type_year");
+    }
+
+    @Test
+    void holidayQueriesUseHolidayIndexes() {
+        assertUses(planOf("public_holidays", () -> publicHolidayRepository.findByYear(2024)),
+                "idx_public_holidays_year");
+        assertUses(planOf("public_holidays", () -> publicHolidayRepository.findHolidaysBetween(
+                        LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31))),
+                "idx_public_holidays_date");
+    }
+
+    // The filter positioned on the second page, so the plan includes the cursor predicate
+    private static LeaveRequestFilter secondPage(LeaveRequestFilter filter,
+                                                 Function<LeaveRequestFilter, LeaveRequestPage> list) {
+        filter.setLimit(10);
+        filter.setCursor(list.apply(filter).getNextCursor());
+        assertThat(filter.getCursor()).isNotNull();
+        return filter;
+    }
+
+    /**
+     * The plan of the one SELECT on table that call makes Hibernate send, with its parameters.
+     */
+    private String planOf(String table, Runnable call) {
+        statements.clear();
+        call.run();
+
+        List<QueryInfo> selects = statements.stream()
+                .filter(query -> query.getQuery().toLowerCase(Locale.ROOT).startsWith("select"))
+                .filter(query -> query.getQuery().toLowerCase(Locale.ROOT).contains(" from " + table))
+                .toList();
+        assertThat(selects).as("SELECTs on %s", table).hasSize(1);
+
+        QueryInfo query = selects.get(0);
+        return query.getQuery() + "\n" + explain(query);
+    }
+
+    private String explain(QueryInfo query) {
+        StringJoiner plan = new StringJoiner("\n");
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getQuery())) {
+            for (ParameterSetOperation parameter : query.getParametersList().get(0)) {
+                parameter.getMethod().invoke(statement, parameter.getArgs());
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not explain " + query.getQuery(), e);
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Asserts the plan reads through the index and never scans a table whole.
+     */
+    private static void assertUses(String plan, String index) {
+        assertThat(plan).as("plan").doesNotContain("Seq Scan").contains(index);
+    }
+}
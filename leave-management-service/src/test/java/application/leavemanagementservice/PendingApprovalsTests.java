@@ -0,0 +1,141 @@
+package application.leavemanagementservice;
+
+import application.leavemanagementservice.ENUM.LeaveType;
+import application.leavemanagementservice.Repository.LeaveBalanceRepository;
+import application.leavemanagementservice.Repository.LeaveRequestRepository;
+import application.leavemanagementservice.Service.CloudinaryService;
+import application.leavemanagementservice.Service.EmailService;
+import application.leavemanagementservice.Service.LeaveAccrualService;
+import application.leavemanagementservice.Service.LeaveService;
+import application.leavemanagementservice.Service.UserDirectoryService;
+import application.leavemanagementservice.dto.LeaveRequestDTO;
+import application.leavemanagementservice.dto.LeaveRequestFilter;
+import application.leavemanagementservice.dto.LeaveRequestResponse;
+import application.leavemanagementservice.dto.UserDTO;
+import application.leavemanagementservice.exceptions.UnauthorizedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Requests created through LeaveService show up in the right approval queues.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LeaveService.class, LeaveAccrualService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PendingApprovalsTests {
+
+    private static final long MANAGER_ID = 10L;
+    private static final long OTHER_MANAGER_ID = 11L;
+    private static final long ADMIN_ID = 12L;
+    private static final long STAFF_ID = 13L;
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @MockBean
+    private UserDirectoryService userDirectoryService;
+
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private CloudinaryService cloudinaryService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        TestPostgres.register(registry, "leave_approvals_test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository.deleteAll();
+        leaveBalanceRepository.deleteAll();
+
+        when(userDirectoryService.getUser(anyLong()))
+                .thenAnswer(invocation -> user(invocation.getArgument(0), "STAFF", null));
+        when(userDirectoryService.getUser(MANAGER_ID)).thenReturn(user(MANAGER_ID, "MANAGER", null));
+        when(userDirectoryService.getUser(OTHER_MANAGER_ID)).thenReturn(user(OTHER_MANAGER_ID, "MANAGER", null));
+        when(userDirectoryService.getUser(ADMIN_ID)).thenReturn(user(ADMIN_ID, "ADMIN", null));
+        when(userDirectoryService.getUsers(anyCollection())).thenReturn(Map.of());
+    }
+
+    @Test
+    void managerSeesRequestCreatedByTheirReport() {
+        // What auth-service sends today: no manager on record for anyone
+        when(userDirectoryService.getUser(1L)).thenReturn(user(1L, "STAFF", null));
+
+        LeaveRequestResponse created = leaveService.createLeaveRequest(sickLeave(), 1L, "token", null);
+
+        assertThat(queueOf(MANAGER_ID)).contains(created.getId());
+        assertThat(queueOf(OTHER_MANAGER_ID)).contains(created.getId());
+    }
+
+    @Test
+    void routedRequestOnlyReachesItsManager() {
+        when(userDirectoryService.getUser(2L)).thenReturn(user(2L, "STAFF", MANAGER_ID));
+
+        LeaveRequestResponse created = leaveService.createLeaveRequest(sickLeave(), 2L, "token", null);
+
+        assertThat(queueOf(MANAGER_ID)).contains(created.getId());
+        assertThat(queueOf(OTHER_MANAGER_ID)).doesNotContain(created.getId());
+    }
+
+    @Test
+    void adminSeesEveryPendingRequest() {
+        when(userDirectoryService.getUser(1L)).thenReturn(user(1L, "STAFF", null));
+        when(userDirectoryService.getUser(2L)).thenReturn(user(2L, "STAFF", OTHER_MANAGER_ID));
+
+        LeaveRequestResponse unrouted = leaveService.createLeaveRequest(sickLeave(), 1L, "token", null);
+        LeaveRequestResponse routed = leaveService.createLeaveRequest(sickLeave(), 2L, "token", null);
+
+        assertThat(queueOf(ADMIN_ID)).containsExactlyInAnyOrder(unrouted.getId(), routed.getId());
+    }
+
+    @Test
+    void staffCannotViewTheQueue() {
+        assertThatThrownBy(() -> queueOf(STAFF_ID)).isInstanceOf(UnauthorizedException.class);
+    }
+
+    private List<Long> queueOf(long reviewerId) {
+        return leaveService.getPendingApprovals(reviewerId, "token", new LeaveRequestFilter())
+                .getRequests().stream()
+                .map(LeaveRequestResponse::getId)
+                .toList();
+    }
+
+    private static LeaveRequestDTO sickLeave() {
+        LocalDate start = LocalDate.now().plusDays(7);
+        return new LeaveRequestDTO(LeaveType.SICK, start, start.plusDays(1), "Appointment");
+    }
+
+    private static UserDTO user(Long id, String role, Long managerId) {
+        return new UserDTO(id, "user" + id + "@example.com", "Test", "User " + id, role, "Engineering",
+                managerId, LocalDate.of(2020, 1, 1));
+    }
+}
@@ -0,0 +1,76 @@
+package application.leavemanagementservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A real Postgres for the tests that depend on its planner, row locking or
+ * extensions (btree_gist), which H2 cannot stand in for. One server is started
+ * per test JVM from the binaries embedded-postgres ships as a Maven artifact, so
+ * neither a local install nor Docker is needed; each test class gets its own
+ * database and runs the Flyway migrations into it. Postgres refuses to start as
+ * root, so run the build as a regular user.
+ */
+final class TestPostgres {
+
+    private static final String USER = "postgres";
+
+    private static EmbeddedPostgres server;
+    private static final Map<String, String> databases = new HashMap<>();
+
+    private TestPostgres() {
+    }
+
+    /**
+     * Points the test context at a fresh database of that name. Also gives the Feign
+     * client for auth-service a URL, so the context starts without AUTH_SERVICE set;
+     * the tests mock UserDirectoryService and never call it.
+     */
+    static void register(DynamicPropertyRegistry registry, String database) {
+        String url = jdbcUrl(database);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> USER);
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("auth.service.url", () -> "http://localhost:0");
+    }
+
+    /**
+     * JDBC URL of an empty database, created on first use.
+     */
+    static synchronized String jdbcUrl(String database) {
+        return databases.computeIfAbsent(database, name -> {
+            try (Connection connection = server().getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE " + name);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not create test database " + name, e);
+            }
+            return server().getJdbcUrl(USER, name);
+        });
+    }
+
+    private static EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not start the test Postgres", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException ignored) {
+                    // the process goes down with the JVM either way
+                }
+            }));
+        }
+        return server;
+    }
+}
@@ -0,0 +1,366 @@
+package application.leavemanagementservice;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Throughput of the running service with spring.threads.virtual.enabled off and on.
+ * Each run boots the whole application on a real Postgres, with the default Tomcat
+ * (200 threads) and Hikari (20 connections) settings, and a local stand-in for
+ * auth-service. Concurrent clients then call my-requests, my-balances and
+ * pending-approvals in a closed loop. Two workloads are measured:
+ * <ul>
+ *     <li>replica: users come from user_directory, so requests only wait on the database;</li>
+ *     <li>remote: the user cache is off and the replica empty, so every user lookup is a
+ *     Feign call to auth-service that answers after load.remote-latency.</li>
+ * </ul>
+ * Slow, so it is left out of the normal build. Run it on a JDK 21, as a regular user
+ * (see TestPostgres):
+ * <pre>
+ * mvn test -Pload-test [-Dload.clients=400 -Dload.duration=PT20S -Dload.remote-latency=PT0.05S]
+ * </pre>
+ * Results are printed. Errors are counted rather than failed on: past what the pool
+ * can serve, requests give up after Hikari's connection timeout by design. The test
+ * only fails if the thread mode did not take effect or a run served nothing.
+ */
+@Tag("load")
+class ThreadModelLoadTests {
+
+    private static final int USERS = 2000;
+    private static final int MANAGERS = 100;
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT20S"));
+    private static final Duration REMOTE_LATENCY = Duration.parse(System.getProperty("load.remote-latency", "PT0.05S"));
+
+    private static final String[] ENDPOINTS = {
+            "/api/leave/my-requests", "/api/leave/my-balances", "/api/leave/pending-approvals"
+    };
+
+    private enum Workload { REMOTE, REPLICA }
+
+    private record Result(Workload workload, boolean virtual, long requests, long errors,
+                          double perSecond, double p50Millis, double p99Millis) {
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need a Java 21 runtime");
+
+        String databaseUrl = TestPostgres.jdbcUrl("leave_load_test");
+        List<Result> results = new ArrayList<>();
+        try (AuthServiceStub authService = new AuthServiceStub(REMOTE_LATENCY)) {
+            // REMOTE first: the database is fresh, so user_directory is still empty
+            for (Workload workload : Workload.values()) {
+                authService.listUsers = workload == Workload.REPLICA;
+                for (boolean virtual : new boolean[]{false, true}) {
+                    try (ConfigurableApplicationContext app = start(databaseUrl, authService, workload, virtual)) {
+                        JdbcTemplate jdbcTemplate = app.getBean(JdbcTemplate.class);
+                        seedOnce(jdbcTemplate);
+                        awaitReplica(jdbcTemplate, workload == Workload.REPLICA ? USERS : 0);
+                        assertThat(tomcatUsesVirtualThreads(app)).isEqualTo(virtual);
+
+                        int port = ((ServletWebServerApplicationContext) app).getWebServer().getPort();
+                        drive(port, WARMUP);
+                        results.add(result(workload, virtual, drive(port, DURATION)));
+                    }
+                }
+            }
+        }
+
+        System.out.printf("%n%d clients, %s per run, auth-service latency %d ms%n",
+                CLIENTS, DURATION, REMOTE_LATENCY.toMillis());
+        System.out.printf("%-8s %-9s %10s %8s %10s %9s %9s%n",
+                "workload", "threads", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        results.forEach(r -> System.out.printf("%-8s %-9s %10d %8d %10.0f %9.1f %9.1f%n",
+                r.workload().name().toLowerCase(), r.virtual() ? "virtual" : "platform",
+                r.requests(), r.errors(), r.perSecond(), r.p50Millis(), r.p99Millis()));
+
+        assertThat(results).allSatisfy(r -> assertThat(r.errors()).isLessThan(r.requests()));
+    }
+
+    private static ConfigurableApplicationContext start(String databaseUrl, AuthServiceStub authService,
+                                                        Workload workload, boolean virtual) {
+        // As command-line arguments: application.properties would override default properties
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--DB_URL=" + databaseUrl,
+                "--DB_USERNAME=postgres",
+                "--DB_PASSWORD=",
+                "--AUTH_SERVICE=" + authService.url(),
+                "--eureka.client.enabled=false",
+                "--EUREKA_SERVER=http://localhost:0/eureka",
+                "--JWT_SECRET=load-test",
+                "--JWT_EXPIRATION=3600000",
+                "--BREVO_API_KEY=load-test",
+                "--EMAIL=load-test@example.com",
+                "--CLOUD_NAME=load-test",
+                "--CLOUD_API_KEY=load-test",
+                "--CLOUD_API_SECRET=load-test",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.application.leavemanagementservice=WARN"));
+        if (workload == Workload.REMOTE) {
+            arguments.add("--user-directory.cache.max-size=0");
+        }
+
+        return new SpringApplicationBuilder(LeaveManagementServiceApplication.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    private static boolean tomcatUsesVirtualThreads(ConfigurableApplicationContext app) {
+        TomcatWebServer webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) app).getWebServer();
+        return webServer.getTomcat().getConnector().getProtocolHandler().getExecutor()
+                .getClass().getSimpleName().contains("Virtual");
+    }
+
+    private static void seedOnce(JdbcTemplate jdbcTemplate) {
+        Integer seeded = jdbcTemplate.queryForObject("SELECT count(*) FROM leave_requests", Integer.class);
+        if (seeded != null && seeded > 0) {
+            return;
+        }
+        // 25 requests per employee over the last two years, one in 23 pending with its manager
+        jdbcTemplate.execute("""
+                INSERT INTO leave_requests (user_id, leave_type, start_date, end_date, number_of_days,
+                                            status, manager_id, created_at, updated_at)
+                SELECT n %% %1$d + 1, (ARRAY['SICK', 'ANNUAL', 'CASUAL', 'MATERNITY'])[(n %% 4) + 1],
+                       current_date - (n %% 730), current_date - (n %% 730) + (n %% 5), (n %% 5) + 1,
+                       CASE WHEN n %% 23 = 0 THEN 'PENDING'
+                            ELSE (ARRAY['APPROVED', 'REJECTED', 'CANCELLED'])[(n / 7 %% 3) + 1] END,
+                       (n %% %1$d) %% %2$d + 1,
+                       now() - (n %% 730) * INTERVAL '1 day', now()
+                FROM generate_series(1, %1$d * 25) AS n
+                """.formatted(USERS, MANAGERS));
+        jdbcTemplate.execute("""
+                INSERT INTO leave_balances (user_id, leave_type, year, total_days, used_days, available_days)
+                SELECT u, (ARRAY['SICK', 'ANNUAL', 'CASUAL'])[t], extract(year FROM current_date), 20, 5, 15
+                FROM generate_series(1, %d) AS u, generate_series(1, 3) AS t
+                """.formatted(USERS));
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private static void awaitReplica(JdbcTemplate jdbcTemplate, int users) throws InterruptedException {
+        // The first directory sync runs right after startup, on the scheduler
+        for (int attempt = 0; attempt < 100; attempt++) {
+            Integer replicated = jdbcTemplate.queryForObject("SELECT count(*) FROM user_directory", Integer.class);
+            if (replicated != null && replicated == users) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("user_directory did not reach " + users + " user(s)");
+    }
+
+    /**
+     * CLIENTS concurrent callers, each sending its next request as soon as the
+     * previous one answers, until the duration is up.
+     */
+    private static Samples drive(int port, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Samples samples = new Samples();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong sequence = new AtomicLong();
+
+        long started = System.nanoTime();
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            callers.add(call(client, port, sequence, samples, running));
+        }
+        Thread.sleep(duration.toMillis());
+        running.set(false);
+        CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).join();
+        samples.elapsedNanos = System.nanoTime() - started;
+        return samples;
+    }
+
+    private static CompletableFuture<Void> call(HttpClient client, int port, AtomicLong sequence,
+                                                Samples samples, AtomicBoolean running) {
+        if (!running.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long n = sequence.getAndIncrement();
+        String endpoint = ENDPOINTS[(int) (n % ENDPOINTS.length)];
+        long userId = endpoint.endsWith("pending-approvals")
+                ? ThreadLocalRandom.current().nextLong(1, MANAGERS + 1)
+                : ThreadLocalRandom.current().nextLong(MANAGERS + 1, USERS + 1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + endpoint))
+                .header("X-User-Id", Long.toString(userId))
+                .header("Authorization", "Bearer load-test")
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    samples.record(System.nanoTime() - sent, failure == null && response.statusCode() == 200);
+                    return null;
+                })
+                .thenCompose(ignored -> call(client, port, sequence, samples, running));
+    }
+
+    private static Result result(Workload workload, boolean virtual, Samples samples) {
+        long[] latencies = samples.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Result(workload, virtual, latencies.length, samples.errors.get(),
+                latencies.length / (samples.elapsedNanos / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, sortedNanos.length * quantile)] / 1e6;
+    }
+
+    private static class Samples {
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final AtomicLong errors = new AtomicLong();
+        long elapsedNanos;
+
+        void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The parts of auth-service's API leave-management-service calls. Lookups by id
+     * answer after the configured latency; the listing used by the directory sync
+     * answers at once, and is empty unless listUsers is set.
+     */
+    private static class AuthServiceStub implements AutoCloseable {
+
+        private static final Pattern USER_ID = Pattern.compile("/api/auth/user/(\\d+)");
+        private static final Pattern AFTER_ID = Pattern.compile("afterId=(\\d+)");
+        private static final Pattern LIMIT = Pattern.compile("limit=(\\d+)");
+
+        private final HttpServer server;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final Duration latency;
+        volatile boolean listUsers;
+
+        AuthServiceStub(Duration latency) throws IOException {
+            this.latency = latency;
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+            server.createContext("/api/auth", this::handle);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            String query = String.valueOf(exchange.getRequestURI().getQuery());
+            try {
+                Matcher byId = USER_ID.matcher(path);
+                if (byId.matches()) {
+                    pause();
+                    respond(exchange, user(Long.parseLong(byId.group(1))));
+                } else if (path.equals("/api/auth/users/batch")) {
+                    pause();
+                    String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                    respond(exchange, Arrays.stream(body.replaceAll("[\\[\\]\\s]", "").split(","))
+                            .filter(id -> !id.isEmpty())
+                            .map(id -> user(Long.parseLong(id)))
+                            .collect(Collectors.joining(",", "[", "]")));
+                } else if (path.equals("/api/auth/users/changes/latest")) {
+                    respond(exchange, "0");
+                } else if (path.equals("/api/auth/users/changes")) {
+                    respond(exchange, "{\"userIds\":[],\"nextCursor\":0,\"resyncRequired\":false}");
+                } else if (path.equals("/api/auth/users")) {
+                    respond(exchange, page(number(AFTER_ID, query), number(LIMIT, query)));
+                } else {
+                    exchange.sendResponseHeaders(404, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private String page(long afterId, long limit) {
+            long last = listUsers ? Math.min(USERS, afterId + limit) : afterId;
+            String users = LongStream.rangeClosed(afterId + 1, last)
+                    .mapToObj(AuthServiceStub::user)
+                    .collect(Collectors.joining(",", "[", "]"));
+            return "{\"users\":" + users + ",\"nextAfterId\":" + (last < USERS && last > afterId ? last : null) + "}";
+        }
+
+        private static String user(long id) {
+            String role = id <= MANAGERS ? "MANAGER" : "STAFF";
+            Long managerId = id <= MANAGERS ? null : (id - 1) % MANAGERS + 1;
+            return """
+                    {"id":%d,"email":"user%d@example.com","firstName":"User","lastName":"%d","role":"%s",\
+                    "department":"Engineering","managerId":%s,"joiningDate":"2020-01-01"}"""
+                    .formatted(id, id, id, role, managerId);
+        }
+
+        private static long number(Pattern pattern, String query) {
+            Matcher matcher = pattern.matcher(query);
+            return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void respond(HttpExchange exchange, String json) throws IOException {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}